@@ -3,19 +3,31 @@ package ru.practicum.shareit.booking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequestDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private static final String EVENTS_PATH = "/internal/booking-events";
+
+    private final String serverUrl;
 
     @Autowired
     public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
@@ -25,20 +37,16 @@ public class BookingClient extends BaseClient {
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        this.serverUrl = serverUrl;
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size,
+                                              LocalDateTime cursorStart, Long cursorId) {
+        return getBookingList("", userId, state, from, size, cursorStart, cursorId);
     }
 
-
-    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public ResponseEntity<Object> bookItem(long userId, String idempotencyKey, BookItemRequestDto requestDto) {
+        return postWithIdempotencyKey("", userId, idempotencyKey, requestDto);
     }
 
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
@@ -49,12 +57,49 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved=" + approve, userId);
     }
 
-    public ResponseEntity<Object> getBookingsForUser(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> approveBookings(long userId, List<BookingApprovalRequestDto> approvals) {
+        return patch("", userId, approvals);
+    }
+
+    public ResponseEntity<Object> getBookingsForUser(long userId, BookingState state, Integer from, Integer size,
+                                                     LocalDateTime cursorStart, Long cursorId) {
+        return getBookingList("/owner", userId, state, from, size, cursorStart, cursorId);
+    }
+
+    public List<BookingEventDto> getEvents(long userId, long after, int size) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        List<BookingEventDto> events = rest.exchange("/events?after={after}&size={size}", HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<List<BookingEventDto>>() {
+                }, Map.of("after", after, "size", size)).getBody();
+        return events == null ? List.of() : events;
+    }
+
+    public List<BookingEventDto> getPublishedEvents(long after, int size) {
+        List<BookingEventDto> events = rest.exchange(serverUrl + EVENTS_PATH + "?after={after}&size={size}",
+                HttpMethod.GET, null, new ParameterizedTypeReference<List<BookingEventDto>>() {
+                }, Map.of("after", after, "size", size)).getBody();
+        return events == null ? List.of() : events;
+    }
+
+    public long getLastPublishedSeq() {
+        Long seq = rest.getForObject(serverUrl + EVENTS_PATH + "/head", Long.class);
+        return seq == null ? 0 : seq;
+    }
+
+    private ResponseEntity<Object> getBookingList(String path, long userId, BookingState state, Integer from,
+                                                  Integer size, LocalDateTime cursorStart, Long cursorId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        String query = "?state={state}&from={from}&size={size}";
+        if (cursorStart != null && cursorId != null) {
+            parameters.put("cursorStart", cursorStart);
+            parameters.put("cursorId", cursorId);
+            query += "&cursorStart={cursorStart}&cursorId={cursorId}";
+        }
+        return get(path + query, userId, parameters);
     }
-}
\ No newline at end of file
+}
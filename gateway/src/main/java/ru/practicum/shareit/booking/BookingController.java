@@ -2,16 +2,26 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -20,24 +30,39 @@ import javax.validation.constraints.PositiveOrZero;
 @Validated
 public class BookingController {
     private final BookingClient bookingClient;
+    private final BookingEventStream bookingEventStream;
     private static final String HEADER = "X-Sharer-User-Id";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_APPROVALS = 100;
 
     @GetMapping
     public ResponseEntity<Object> getBookings(@RequestHeader(HEADER) long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME)
+                                              LocalDateTime cursorStart,
+                                              @RequestParam(required = false) Long cursorId) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        return bookingClient.getBookings(userId, state, from, size, cursorStart, cursorId);
     }
 
     @PostMapping
     public ResponseEntity<Object> bookItem(@RequestHeader(HEADER) long userId,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
                                            @RequestBody @Valid BookItemRequestDto requestDto) {
-        log.info("Creating booking {}, userId={}", requestDto, userId);
-        return bookingClient.bookItem(userId, requestDto);
+        log.info("Creating booking {}, userId={}, idempotencyKey={}", requestDto, userId, idempotencyKey);
+        return bookingClient.bookItem(userId, idempotencyKey, requestDto);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(HEADER) long userId,
+                                   @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId) {
+        log.info("Subscribe to booking events, userId={}, lastEventId={}", userId, lastEventId);
+        return bookingEventStream.subscribe(userId, lastEventId);
     }
 
     @GetMapping("/{bookingId}")
@@ -54,13 +79,24 @@ public class BookingController {
         return bookingClient.approveBooking(bookingId, userId, approve);
     }
 
+    @PatchMapping
+    public ResponseEntity<Object> approveBookings(@RequestHeader(HEADER) long userId,
+                                                  @RequestBody @NotEmpty @Size(max = MAX_APPROVALS)
+                                                  List<@Valid BookingApprovalRequestDto> approvals) {
+        log.info("Approve {} bookings, userId={}", approvals.size(), userId);
+        return bookingClient.approveBookings(userId, approvals);
+    }
+
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsForUser(@RequestHeader(HEADER) long userId,
                                                      @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                     @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                     @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME)
+                                                     LocalDateTime cursorStart,
+                                                     @RequestParam(required = false) Long cursorId) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS"));
-        return bookingClient.getBookingsForUser(userId, state, from, size);
+        return bookingClient.getBookingsForUser(userId, state, from, size, cursorStart, cursorId);
     }
 }
\ No newline at end of file
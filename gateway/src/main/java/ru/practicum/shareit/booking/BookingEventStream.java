@@ -0,0 +1,142 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Streams booking events to SSE subscribers. The gateway follows the server's feed of all published events
+ * with a single cursor on the publish sequence, one request per poll however many users are subscribed, and
+ * fans each event out to the subscribers of its booker and item owner. A new subscriber starts at that
+ * cursor; one reconnecting with Last-Event-ID first gets its own events between that id and the cursor
+ * replayed from the user's feed, so nothing is lost across a reconnect.
+ */
+@Slf4j
+@Component
+public class BookingEventStream {
+    private static final int BATCH_SIZE = 100;
+
+    private final BookingClient bookingClient;
+    private final long emitterTimeoutMillis;
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final Object cursorLock = new Object();
+    private Long cursor;
+
+    public BookingEventStream(BookingClient bookingClient,
+                              @Value("${shareit.booking.events.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.bookingClient = bookingClient;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+    }
+
+    public SseEmitter subscribe(long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        long head;
+        // Registering under the cursor lock splits the events exactly: up to head they come from the replay,
+        // after it from the poll.
+        synchronized (cursorLock) {
+            head = cursor();
+            emitters.compute(userId, (id, list) -> {
+                List<SseEmitter> userEmitters = list == null ? new CopyOnWriteArrayList<>() : list;
+                userEmitters.add(emitter);
+                return userEmitters;
+            });
+        }
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(userId, emitter));
+        if (lastEventId != null && lastEventId < head) {
+            replay(userId, emitter, lastEventId, head);
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.events.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            List<BookingEventDto> events;
+            do {
+                long after;
+                synchronized (cursorLock) {
+                    after = cursor();
+                }
+                events = bookingClient.getPublishedEvents(after, BATCH_SIZE);
+                synchronized (cursorLock) {
+                    for (BookingEventDto event : events) {
+                        dispatch(event);
+                        cursor = event.getPublishSeq();
+                    }
+                }
+            } while (events.size() == BATCH_SIZE);
+        } catch (RestClientException e) {
+            log.warn("Failed to poll booking events: {}", e.getMessage());
+        }
+    }
+
+    private long cursor() {
+        if (cursor == null) {
+            cursor = bookingClient.getLastPublishedSeq();
+        }
+        return cursor;
+    }
+
+    private void replay(long userId, SseEmitter emitter, long after, long head) {
+        List<BookingEventDto> events;
+        do {
+            events = bookingClient.getEvents(userId, after, BATCH_SIZE);
+            for (BookingEventDto event : events) {
+                if (event.getPublishSeq() > head) {
+                    return;
+                }
+                if (!send(emitter, event)) {
+                    remove(userId, emitter);
+                    return;
+                }
+                after = event.getPublishSeq();
+            }
+        } while (events.size() == BATCH_SIZE);
+    }
+
+    private void dispatch(BookingEventDto event) {
+        sendAll(event.getBookerId(), event);
+        if (event.getOwnerId() != event.getBookerId()) {
+            sendAll(event.getOwnerId(), event);
+        }
+    }
+
+    private void sendAll(long userId, BookingEventDto event) {
+        for (SseEmitter emitter : emitters.getOrDefault(userId, List.of())) {
+            if (!send(emitter, event)) {
+                remove(userId, emitter);
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, BookingEventDto event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getPublishSeq()))
+                    .name(event.getType().toLowerCase())
+                    .data(event));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private void remove(long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
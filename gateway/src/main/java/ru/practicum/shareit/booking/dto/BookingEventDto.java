@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEventDto {
+    private long id;
+    private long bookingId;
+    private long itemId;
+    private long bookerId;
+    private long ownerId;
+    private String type;
+    private LocalDateTime created;
+    private long publishSeq;
+}
@@ -3,15 +3,21 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 
 import javax.validation.Valid;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -32,6 +38,10 @@ public class ItemClient extends BaseClient {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> importItems(long userId, List<ItemRequestDto> items) {
+        return post("/import", userId, items);
+    }
+
     public ResponseEntity<Object> updateItem(long userId, long itemId, ItemRequestDto requestDto) {
         return patch("/" + itemId, userId, requestDto);
     }
@@ -40,12 +50,16 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getItems(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getItems(long userId, Integer from, Integer size, Long cursorId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        String query = "?from={from}&size={size}";
+        if (cursorId != null) {
+            parameters.put("cursorId", cursorId);
+            query += "&cursorId={cursorId}";
+        }
+        return get(query, userId, parameters);
     }
 
     public ResponseEntity<Object> searchItems(long userId, String text, Integer from, Integer size) {
@@ -58,6 +72,24 @@ public class ItemClient extends BaseClient {
 
     }
 
+    public ResponseEntity<Object> suggestItems(long userId, String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
+    }
+
+    public void streamSearchItems(long userId, String text, OutputStream out) {
+        rest.execute("/search/stream?text={text}", HttpMethod.GET,
+                request -> {
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                    request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON));
+                },
+                response -> StreamUtils.copy(response.getBody(), out),
+                Map.of("text", text));
+    }
+
     public ResponseEntity<Object> addComment(long userId, long itemId, @Valid CommentRequestDto requestDto) {
         return post("/" + itemId + "/comment", userId, requestDto);
     }
@@ -2,16 +2,22 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -22,6 +28,8 @@ public class ItemController {
 
     private final ItemClient itemClient;
     private static final String HEADER = "X-Sharer-User-Id";
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_IMPORT_ITEMS = 5000;
 
     @PostMapping
     public ResponseEntity<Object> addItem(@RequestHeader(HEADER) long userId,
@@ -29,6 +37,14 @@ public class ItemController {
         return itemClient.addItem(userId, requestDto);
     }
 
+    @PostMapping("/import")
+    public ResponseEntity<Object> importItems(@RequestHeader(HEADER) long userId,
+                                              @RequestBody @NotEmpty @Size(max = MAX_IMPORT_ITEMS)
+                                              List<ItemRequestDto> items) {
+        log.info("Import {} items, userId={}", items.size(), userId);
+        return itemClient.importItems(userId, items);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestHeader(HEADER) long userId,
                                              @PathVariable long itemId,
@@ -45,8 +61,9 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Object> getAllItems(@RequestHeader(HEADER) long userId,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemClient.getItems(userId, from, size);
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(required = false) Long cursorId) {
+        return itemClient.getItems(userId, from, size, cursorId);
     }
 
     @GetMapping("/search")
@@ -57,6 +74,22 @@ public class ItemController {
         return itemClient.searchItems(userId, text, from, size);
     }
 
+    @GetMapping(path = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchItems(@RequestHeader(HEADER) long userId,
+                                                                   @RequestParam("text") String text) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> itemClient.streamSearchItems(userId, text, out));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItems(@RequestHeader(HEADER) long userId,
+                                               @RequestParam("prefix") String prefix,
+                                               @Positive @Max(MAX_SUGGESTIONS)
+                                               @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemClient.suggestItems(userId, prefix, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> addComment(@RequestHeader(HEADER) long userId,
                                              @PathVariable long itemId,
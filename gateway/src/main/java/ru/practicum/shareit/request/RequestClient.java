@@ -10,6 +10,8 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.RequestDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -34,15 +36,31 @@ public class RequestClient extends BaseClient {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> getRequests(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getRequests(long userId, Integer from, Integer size,
+                                              LocalDateTime cursorCreated, Long cursorId) {
+        return getRequestList("/all", userId, from, size, cursorCreated, cursorId);
+    }
+
+    public ResponseEntity<Object> getAllRequests(long userId, Integer from, Integer size,
+                                                 LocalDateTime cursorCreated, Long cursorId) {
+        return getRequestList("", userId, from, size, cursorCreated, cursorId);
+    }
+
+    public ResponseEntity<Object> getArchivedRequests(long userId, Integer from, Integer size) {
+        return getRequestList("/archived", userId, from, size, null, null);
     }
 
-    public ResponseEntity<Object> getAllRequests(long userId) {
-        return get("", userId);
+    private ResponseEntity<Object> getRequestList(String path, long userId, Integer from, Integer size,
+                                                  LocalDateTime cursorCreated, Long cursorId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        String query = "?from={from}&size={size}";
+        if (cursorCreated != null && cursorId != null) {
+            parameters.put("cursorCreated", cursorCreated);
+            parameters.put("cursorId", cursorId);
+            query += "&cursorCreated={cursorCreated}&cursorId={cursorId}";
+        }
+        return get(path + query, userId, parameters);
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -9,8 +10,12 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.RequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 
 @Controller
 @RequestMapping(path = "/requests")
@@ -21,6 +26,7 @@ public class RequestController {
 
     private final RequestClient requestClient;
     static final String HEADER = "X-Sharer-User-Id";
+    private static final int MAX_PAGE_SIZE = 100;
 
     @PostMapping
     public ResponseEntity<Object> addRequest(@RequestHeader(HEADER) long userId,
@@ -35,15 +41,32 @@ public class RequestController {
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getAllRequests(@RequestHeader(HEADER) long userId) {
-        return requestClient.getAllRequests(userId);
+    public ResponseEntity<Object> getAllRequests(@RequestHeader(HEADER) long userId,
+                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                 @Positive @Max(MAX_PAGE_SIZE)
+                                                 @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME)
+                                                 LocalDateTime cursorCreated,
+                                                 @RequestParam(required = false) Long cursorId) {
+        return requestClient.getAllRequests(userId, from, size, cursorCreated, cursorId);
     }
 
 
+    @GetMapping("/archived")
+    public ResponseEntity<Object> getArchivedRequests(@RequestHeader(HEADER) long userId,
+                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                      @Positive @Max(MAX_PAGE_SIZE)
+                                                      @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return requestClient.getArchivedRequests(userId, from, size);
+    }
+
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequestsForUser(@RequestHeader(HEADER) long userId,
                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return requestClient.getRequests(userId, from, size);
+                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME)
+                                                        LocalDateTime cursorCreated,
+                                                        @RequestParam(required = false) Long cursorId) {
+        return requestClient.getRequests(userId, from, size, cursorCreated, cursorId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingPeriod;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of booked periods per item. Only WAITING and APPROVED bookings block an item.
+ * Periods are merged into runs of booked time, overlapping or back to back, kept in a TreeMap keyed by
+ * the start of the run, so both the overlap check and the next free slot are a single search however
+ * many bookings touch. The periods themselves are kept as a multiset by start, because bookings stored
+ * before addBooking checked overlaps may share a start or overlap; releasing one rebuilds only its run.
+ */
+@Component
+public class BookingAvailabilityIndex {
+
+    private static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemPeriods> periodsByItem = new ConcurrentHashMap<>();
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        List<BookingPeriod> periods = bookingRepository.findPeriodsByStatusInAndEndAfter(BLOCKING_STATUSES,
+                LocalDateTime.now());
+        for (BookingPeriod period : periods) {
+            periods(period.getItemId()).add(period.getStart(), period.getEnd());
+        }
+    }
+
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemPeriods periods = periodsByItem.get(itemId);
+        if (periods == null) {
+            return true;
+        }
+        synchronized (periods) {
+            return periods.isFree(start, end);
+        }
+    }
+
+    public LocalDateTime nextFreeSlot(long itemId, LocalDateTime after) {
+        ItemPeriods periods = periodsByItem.get(itemId);
+        if (periods == null) {
+            return after;
+        }
+        synchronized (periods) {
+            Map.Entry<LocalDateTime, LocalDateTime> run = periods.runs.floorEntry(after);
+            return run != null && run.getValue().isAfter(after) ? run.getValue() : after;
+        }
+    }
+
+    public boolean reserve(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemPeriods periods = periods(itemId);
+        synchronized (periods) {
+            periods.removeFinished();
+            if (!periods.isFree(start, end)) {
+                return false;
+            }
+            periods.add(start, end);
+            return true;
+        }
+    }
+
+    public void release(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemPeriods periods = periodsByItem.get(itemId);
+        if (periods == null) {
+            return;
+        }
+        synchronized (periods) {
+            periods.remove(start, end);
+        }
+    }
+
+    private ItemPeriods periods(long itemId) {
+        return periodsByItem.computeIfAbsent(itemId, id -> new ItemPeriods());
+    }
+
+    private static final class ItemPeriods {
+        private final NavigableMap<LocalDateTime, List<LocalDateTime>> periods = new TreeMap<>();
+        private final NavigableMap<LocalDateTime, LocalDateTime> runs = new TreeMap<>();
+
+        private boolean isFree(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> run = runs.lowerEntry(end);
+            return run == null || !run.getValue().isAfter(start);
+        }
+
+        private void add(LocalDateTime start, LocalDateTime end) {
+            periods.computeIfAbsent(start, key -> new ArrayList<>()).add(end);
+            addRun(start, end);
+        }
+
+        private void remove(LocalDateTime start, LocalDateTime end) {
+            List<LocalDateTime> ends = periods.get(start);
+            if (ends == null || !ends.remove(end)) {
+                return;
+            }
+            if (ends.isEmpty()) {
+                periods.remove(start);
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> run = runs.floorEntry(start);
+            if (run == null || run.getValue().isBefore(end)) {
+                return;
+            }
+            runs.remove(run.getKey());
+            periods.subMap(run.getKey(), true, run.getValue(), false).forEach((periodStart, periodEnds) ->
+                    periodEnds.forEach(periodEnd -> addRun(periodStart, periodEnd)));
+        }
+
+        private void addRun(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime runStart = start;
+            LocalDateTime runEnd = end;
+            Map.Entry<LocalDateTime, LocalDateTime> before = runs.floorEntry(start);
+            if (before != null && !before.getValue().isBefore(start)) {
+                runStart = before.getKey();
+                runEnd = max(runEnd, before.getValue());
+            }
+            NavigableMap<LocalDateTime, LocalDateTime> merged = runs.subMap(runStart, true, runEnd, true);
+            for (LocalDateTime mergedEnd : merged.values()) {
+                runEnd = max(runEnd, mergedEnd);
+            }
+            merged.clear();
+            runs.put(runStart, runEnd);
+        }
+
+        private void removeFinished() {
+            LocalDateTime now = LocalDateTime.now();
+            while (!periods.isEmpty() && periods.firstEntry().getValue().stream().noneMatch(now::isBefore)) {
+                periods.pollFirstEntry();
+            }
+            while (!runs.isEmpty() && !runs.firstEntry().getValue().isAfter(now)) {
+                runs.pollFirstEntry();
+            }
+        }
+
+        private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+            return first.isAfter(second) ? first : second;
+        }
+    }
+}
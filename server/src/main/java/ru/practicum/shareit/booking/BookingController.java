@@ -1,23 +1,39 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingAddDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 import static ru.practicum.shareit.utils.BaseConstants.HEADER;
+import static ru.practicum.shareit.utils.BaseConstants.IDEMPOTENCY_KEY;
 
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingIdempotencyStore idempotencyStore;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingIdempotencyStore idempotencyStore) {
         this.bookingService = bookingService;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    @GetMapping("/events")
+    public List<BookingEventDto> getEvents(@RequestHeader(HEADER) long userId,
+                                           @RequestParam(defaultValue = "0") long after,
+                                           @RequestParam(defaultValue = "100") int size) {
+        return bookingService.getEvents(userId, after, size);
     }
 
     @GetMapping("/{bookingId}")
@@ -28,8 +44,13 @@ public class BookingController {
 
     @PostMapping
     public BookingDto addBooking(@RequestBody BookingAddDto bookingAddDto,
-                                 @RequestHeader(HEADER) long userId) {
-        return bookingService.addBooking(bookingAddDto, userId);
+                                 @RequestHeader(HEADER) long userId,
+                                 @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return bookingService.addBooking(bookingAddDto, userId);
+        }
+        return idempotencyStore.execute(userId, idempotencyKey, bookingAddDto,
+                () -> bookingService.addBooking(bookingAddDto, userId));
     }
 
     @PatchMapping("/{bookingId}")
@@ -39,19 +60,30 @@ public class BookingController {
         return bookingService.approveBooking(bookingId, userId, approved);
     }
 
+    @PatchMapping
+    public List<BookingApprovalResultDto> approveBookings(@RequestBody List<BookingApprovalDto> approvals,
+                                                          @RequestHeader(HEADER) long userId) {
+        return bookingService.approveBookings(approvals, userId);
+    }
+
     @GetMapping()
     public List<BookingDto> getUserBooking(@RequestParam(required = false, defaultValue = "ALL") BookingTimeState state,
                                @RequestHeader(HEADER) long userId,
                                @RequestParam(defaultValue = "0") int from,
-                               @RequestParam(defaultValue = "20") int size) {
-        return bookingService.getUserBooking(state, userId, from, size);
+                               @RequestParam(defaultValue = "20") int size,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime cursorStart,
+                               @RequestParam(required = false) Long cursorId) {
+        return bookingService.getUserBooking(state, userId, from, size, cursorStart, cursorId);
     }
 
     @GetMapping("/owner")
     public List<BookingDto> getUserItemBooking(@RequestParam(defaultValue = "ALL") @Valid BookingTimeState state,
                                                @RequestHeader(HEADER) long userId,
                                                @RequestParam(defaultValue = "0") int from,
-                                               @RequestParam(defaultValue = "20") int size) {
-        return bookingService.getUserItemBooking(state, userId, from, size);
+                                               @RequestParam(defaultValue = "20") int size,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME)
+                                               LocalDateTime cursorStart,
+                                               @RequestParam(required = false) Long cursorId) {
+        return bookingService.getUserItemBooking(state, userId, from, size, cursorStart, cursorId);
     }
 }
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+import java.util.List;
+
+/**
+ * Feed of all published booking events for the gateway's event stream. It is not user scoped, so the
+ * gateway does not route /internal paths to clients.
+ */
+@RestController
+@RequestMapping(path = "/internal/booking-events")
+public class BookingEventController {
+    private final BookingService bookingService;
+
+    @Autowired
+    public BookingEventController(BookingService bookingService) {
+        this.bookingService = bookingService;
+    }
+
+    @GetMapping
+    public List<BookingEventDto> getPublishedEvents(@RequestParam(defaultValue = "0") long after,
+                                                    @RequestParam(defaultValue = "100") int size) {
+        return bookingService.getPublishedEvents(after, size);
+    }
+
+    @GetMapping("/head")
+    public long getLastPublishedSeq() {
+        return bookingService.getLastPublishedSeq();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes booking events from the outbox: committed events without a publish_seq are marked published
+ * by giving them the next publish sequence numbers. Each batch holds the lock on the single
+ * booking_event_relay row until it commits, so relays on several instances publish one after another and
+ * publish_seq grows in commit order. Readers follow publish_seq instead of the event id, which the pooled
+ * sequence hands out in neither commit nor instance order.
+ */
+@Slf4j
+@Component
+public class BookingEventRelay {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter publishedEvents;
+
+    public BookingEventRelay(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${shareit.booking.events.relay-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.publishedEvents = Counter.builder("shareit.booking.events.published")
+                .description("Booking events published by the relay")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.events.relay-interval-ms:200}")
+    public int publishEvents() {
+        int published = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> publishBatch());
+            published += batch;
+        } while (batch == batchSize);
+        if (published > 0) {
+            publishedEvents.increment(published);
+            log.debug("Published {} booking events", published);
+        }
+        return published;
+    }
+
+    private int publishBatch() {
+        Long lastSeq = jdbcTemplate.queryForObject("SELECT last_seq FROM booking_event_relay WHERE id = 1 FOR UPDATE",
+                Long.class);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM booking_events WHERE publish_seq IS NULL " +
+                "ORDER BY id LIMIT ?", Long.class, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        long seq = lastSeq;
+        for (Long id : ids) {
+            rows.add(new Object[]{++seq, id});
+        }
+        jdbcTemplate.batchUpdate("UPDATE booking_events SET publish_seq = ? WHERE id = ?", rows);
+        jdbcTemplate.update("UPDATE booking_event_relay SET last_seq = ? WHERE id = 1", seq);
+        return ids.size();
+    }
+}
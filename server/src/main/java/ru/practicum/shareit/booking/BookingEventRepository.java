@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+
+    @Query("select e from BookingEvent e where e.publishSeq > ?1 and (e.bookerId = ?2 or e.ownerId = ?2) " +
+            "order by e.publishSeq")
+    List<BookingEvent> findPublishedForUser(long after, long userId, Pageable pageable);
+
+    @Query("select e from BookingEvent e where e.publishSeq > ?1 order by e.publishSeq")
+    List<BookingEvent> findPublished(long after, Pageable pageable);
+
+    @Query("select coalesce(max(e.publishSeq), 0) from BookingEvent e")
+    long findLastPublishedSeq();
+
+    @Transactional
+    @Modifying
+    @Query("delete from BookingEvent e where e.created < ?1 and e.publishSeq is not null")
+    int deletePublishedCreatedBefore(LocalDateTime createdBefore);
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Removes old booking events once they are published. Unpublished events stay however old they are, so an
+ * outage of the relay never drops events it has not delivered yet.
+ */
+@Slf4j
+@Component
+public class BookingEventRetentionJob {
+
+    private final BookingEventRepository bookingEventRepository;
+    private final long retentionHours;
+
+    public BookingEventRetentionJob(BookingEventRepository bookingEventRepository,
+                                    @Value("${shareit.booking.events.retention-hours:24}") long retentionHours) {
+        this.bookingEventRepository = bookingEventRepository;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.events.cleanup-interval-ms:3600000}")
+    public void removeExpiredEvents() {
+        int removed = bookingEventRepository.deletePublishedCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        log.info("Removed {} booking events older than {} hours", removed, retentionHours);
+    }
+}
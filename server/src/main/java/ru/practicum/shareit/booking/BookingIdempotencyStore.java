@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingAddDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of the last created bookings by user and Idempotency-Key, so that a retried
+ * POST /bookings returns the booking created by the first attempt. The least recently used keys are
+ * evicted once the store holds more than maxKeys entries.
+ */
+@Component
+public class BookingIdempotencyStore {
+
+    private final Map<String, StoredResult> entries;
+
+    public BookingIdempotencyStore(@Value("${shareit.booking.idempotency.max-keys:10000}") int maxKeys) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResult> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    public BookingDto execute(long userId, String key, BookingAddDto request, Supplier<BookingDto> action) {
+        String storeKey = userId + ":" + key;
+        StoredResult entry;
+        boolean firstAttempt = false;
+        synchronized (entries) {
+            entry = entries.get(storeKey);
+            if (entry == null) {
+                entry = new StoredResult(request);
+                entries.put(storeKey, entry);
+                firstAttempt = true;
+            }
+        }
+        if (!entry.request.equals(request)) {
+            throw new ConflictException("Idempotency-Key was already used for another booking");
+        }
+        if (!firstAttempt) {
+            if (entry.response == null) {
+                throw new ConflictException("Booking with this Idempotency-Key is still being processed");
+            }
+            return entry.response;
+        }
+        try {
+            entry.response = action.get();
+            return entry.response;
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(storeKey, entry);
+            }
+            throw e;
+        }
+    }
+
+    private static class StoredResult {
+        private final BookingAddDto request;
+        private volatile BookingDto response;
+
+        StoredResult(BookingAddDto request) {
+            this.request = request;
+        }
+    }
+}
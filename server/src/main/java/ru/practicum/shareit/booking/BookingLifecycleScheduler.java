@@ -0,0 +1,67 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Moves bookings through the persisted lifecycle phase (FUTURE, STARTING, CURRENT, PAST) as time passes,
+ * so that state filters are equality lookups on the phase column. A booking is STARTING from its start
+ * until the FUTURE grace period has elapsed, and is listed as both FUTURE and CURRENT meanwhile. Listings
+ * never write: rows the last run has not advanced yet are picked up by the time predicates that
+ * {@link BookingRepositoryCustomImpl} limits to the correction window, which has to exceed the run interval.
+ */
+@Slf4j
+@Component
+public class BookingLifecycleScheduler {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration futureGrace;
+    private final Timer runTimer;
+    private volatile Instant lastRun = Instant.now();
+
+    public BookingLifecycleScheduler(JdbcTemplate jdbcTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${shareit.booking.lifecycle.future-grace-seconds:3}")
+                                     long futureGraceSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.futureGrace = Duration.ofSeconds(futureGraceSeconds);
+        this.runTimer = Timer.builder("shareit.booking.lifecycle.run")
+                .description("Time spent advancing booking phases")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.lifecycle.lag", this, BookingLifecycleScheduler::lagSeconds)
+                .description("Seconds since booking phases were last advanced")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.interval-ms:10000}")
+    public void advancePhases() {
+        runTimer.record(() -> advancePhases(LocalDateTime.now()));
+    }
+
+    public void advancePhases(LocalDateTime now) {
+        int past = jdbcTemplate.update("UPDATE bookings SET phase = 'PAST' " +
+                "WHERE phase IN ('FUTURE', 'STARTING', 'CURRENT') AND end_date < ?", now);
+        int current = jdbcTemplate.update("UPDATE bookings SET phase = 'CURRENT' " +
+                "WHERE phase IN ('FUTURE', 'STARTING') AND start_date < ?", now.minus(futureGrace));
+        int starting = jdbcTemplate.update("UPDATE bookings SET phase = 'STARTING' " +
+                "WHERE phase = 'FUTURE' AND start_date < ?", now);
+        int advanced = past + current + starting;
+        lastRun = Instant.now();
+        log.debug("Booking phases advanced: {} rows", advanced);
+    }
+
+    private double lagSeconds() {
+        return Duration.between(lastRun, Instant.now()).toMillis() / 1000.0;
+    }
+}
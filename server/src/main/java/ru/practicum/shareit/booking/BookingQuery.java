@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+public class BookingQuery {
+    private BookingRole role;
+    private long userId;
+    private BookingTimeState state;
+    private int from;
+    private int size;
+    private LocalDateTime cursorStart;
+    private Long cursorId;
+
+    public boolean hasCursor() {
+        return cursorStart != null && cursorId != null;
+    }
+}
@@ -1,43 +1,58 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPeriod;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Page<Booking> findByBookerIdOrderByStartDesc(long userId, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Override
+    @EntityGraph(attributePaths = {"item.owner", "booker"})
+    Optional<Booking> findById(Long id);
 
-    Page<Booking> findByBookerIdAndEndIsBeforeOrderByEndDesc(long userId, LocalDateTime time, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findByIdIn(Collection<Long> ids);
 
-    Page<Booking> findByBookerIdAndStartIsAfterOrderByEndDesc(long userId, LocalDateTime time, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findFirstByItemIdAndStatusNotAndStartAfterOrderByStartAsc(long itemId, BookingStatus status,
+                                                                                LocalDateTime time);
 
-    Page<Booking> findByBookerIdAndStartBeforeAndEndIsAfterOrderByEndDesc(long userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findByBookerIdAndStatusIsOrderByStartDesc(long userId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findByItemIdOrderByStartDesc(long itemId);
-
-    Page<Booking> findByItemIdInAndEndIsBeforeOrderByEndDesc(List<Long> ids, LocalDateTime time, Pageable pageable);
-
-    Page<Booking> findByItemIdInAndStartIsAfterOrderByEndDesc(List<Long> itemIds, LocalDateTime time, Pageable pageable);
-
-    Page<Booking> findByItemIdInAndStartBeforeAndEndIsAfterOrderByEndDesc(List<Long> itemIds, LocalDateTime start,
-                                                                          LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findByItemIdInAndStatusIsOrderByStartDesc(List<Long> itemIds, BookingStatus status, Pageable pageable);
-
-    @Query("select b " + "from Booking b " + "where b.item.id = ?1 " + "and b.status <> 'REJECTED' " + "and b.end > CURRENT_TIMESTAMP " + "order by b.start asc")
-    List<Booking> findNextBooking(long itemId);
-
-    @Query("select b " + "from Booking b " + "where b.item.id = ?1 " + "and b.status <> 'REJECTED' " + "and b.start < current_timestamp " + "order by b.end asc")
-    List<Booking> findLastBooking(long itemId);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findFirstByItemIdAndStatusNotAndStartBeforeOrderByStartDesc(long itemId, BookingStatus status,
+                                                                                  LocalDateTime time);
 
     List<Booking> findByBookerIdAndItemId(long userId, long itemid);
 
-    Page<Booking> findByItemIdInOrderByStartDesc(List<Long> ids, Pageable pageable);
+    @Query("select b " +
+            "from Booking b " +
+            "join fetch b.item i " +
+            "join fetch i.owner o " +
+            "join fetch b.booker " +
+            "where b.id in ?1 " +
+            "and o.id = ?2")
+    List<Booking> findByIdInAndItemOwnerId(Collection<Long> ids, long ownerId);
+
+    @Query("select b.item.id as itemId, b.start as start, b.end as end " +
+            "from Booking b " +
+            "where b.status in ?1 " +
+            "and b.end > ?2")
+    List<BookingPeriod> findPeriodsByStatusInAndEndAfter(List<BookingStatus> statuses, LocalDateTime time);
+
+    @Query(value = "SELECT r.id FROM (" +
+            "SELECT bk.id, ROW_NUMBER() OVER (" +
+            "PARTITION BY bk.item_id, bk.start_date < :now " +
+            "ORDER BY CASE WHEN bk.start_date < :now THEN bk.start_date END DESC, bk.start_date) AS rn " +
+            "FROM bookings AS bk " +
+            "WHERE bk.item_id IN (:itemIds) " +
+            "AND bk.booking_status <> 'REJECTED') AS r " +
+            "WHERE r.rn = 1",
+            nativeQuery = true)
+    List<Long> findLastAndNextBookingIds(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.model.BookingStatusUpdate;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+    List<BookingView> findBookings(BookingQuery query);
+
+    int[] updateStatuses(List<BookingStatusUpdate> updates);
+}
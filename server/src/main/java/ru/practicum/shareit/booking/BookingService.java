@@ -1,8 +1,12 @@
 package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingAddDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
@@ -13,7 +17,21 @@ public interface BookingService {
 
     BookingDto approveBooking(long bookingId, long userId, boolean approve);
 
+    List<BookingApprovalResultDto> approveBookings(List<BookingApprovalDto> approvals, long userId);
+
+    List<BookingEventDto> getEvents(long userId, long after, int size);
+
+    List<BookingEventDto> getPublishedEvents(long after, int size);
+
+    long getLastPublishedSeq();
+
     List<BookingDto> getUserBooking(BookingTimeState state, long userId, int from, int size);
 
+    List<BookingDto> getUserBooking(BookingTimeState state, long userId, int from, int size,
+                                    LocalDateTime cursorStart, Long cursorId);
+
     List<BookingDto> getUserItemBooking(BookingTimeState state, long userId, int from, int size);
+
+    List<BookingDto> getUserItemBooking(BookingTimeState state, long userId, int from, int size,
+                                        LocalDateTime cursorStart, Long cursorId);
 }
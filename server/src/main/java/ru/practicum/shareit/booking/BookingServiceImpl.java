@@ -1,22 +1,34 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.dto.BookingAddDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusUpdate;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemDetailCache;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,13 +37,22 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final BookingEventRepository bookingEventRepository;
+    private final ItemDetailCache itemDetailCache;
 
     public BookingServiceImpl(BookingRepository bookingRepository,
                               UserRepository userRepository,
-                              ItemRepository itemRepository) {
+                              ItemRepository itemRepository,
+                              BookingAvailabilityIndex availabilityIndex,
+                              BookingEventRepository bookingEventRepository,
+                              ItemDetailCache itemDetailCache) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.bookingEventRepository = bookingEventRepository;
+        this.itemDetailCache = itemDetailCache;
     }
 
     @Override
@@ -39,7 +60,7 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
                 new ResourceNotFoundException("Booking not found"));
         if (userId == booking.getBooker().getId() ||
-                userId == itemRepository.findById(booking.getItem().getId()).orElseThrow().getOwner().getId()) {
+                userId == booking.getItem().getOwner().getId()) {
             return BookingMapper.toBookingDto(booking);
         } else {
             throw new ResourceNotFoundException("Invalid user");
@@ -47,6 +68,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public BookingDto addBooking(BookingAddDto booking, long userId) {
         User booker = userRepository.findById(userId).orElseThrow(() ->
                 new ResourceNotFoundException("User not found"));
@@ -63,140 +85,209 @@ public class BookingServiceImpl implements BookingService {
         } else if (booker.getId() == item.getOwner().getId()) {
             throw new ResourceNotFoundException("Booking items from owner is unavailable");
         }
+        if (!availabilityIndex.reserve(item.getId(), bookingAdd.getStart(), bookingAdd.getEnd())) {
+            throw new ValidationException("Item is already booked for this time, next free slot starts at " +
+                    availabilityIndex.nextFreeSlot(item.getId(), bookingAdd.getStart()));
+        }
         bookingAdd.setBooker(booker);
         bookingAdd.setStatus(BookingStatus.WAITING);
         bookingAdd.setItem(item);
-        return BookingMapper.toBookingDto(bookingRepository.save(bookingAdd));
+        releaseOnRollback(bookingAdd);
+        Booking saved = bookingRepository.save(bookingAdd);
+        bookingEventRepository.save(BookingMapper.toBookingEvent(saved, BookingEventType.CREATED));
+        itemDetailCache.invalidate(item.getId());
+        return BookingMapper.toBookingDto(saved);
     }
 
     @Override
+    @Transactional
     public BookingDto approveBooking(long bookingId, long userId, boolean approve) {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
                 new ResourceNotFoundException("Booking not found"));
         if (booking.getStatus().equals(BookingStatus.APPROVED)) {
             throw new ValidationException("Booking already approved");
         }
-        if (itemRepository.findById(booking.getItem().getId()).orElseThrow().getOwner().getId() != userId) {
+        if (booking.getItem().getOwner().getId() != userId) {
             throw new ResourceNotFoundException("User with this id is not an owner");
         }
+        BookingStatus previousStatus = booking.getStatus();
         if (approve) {
+            if (previousStatus == BookingStatus.REJECTED &&
+                    !availabilityIndex.reserve(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+                throw new ValidationException("Item is already booked for this time");
+            }
+            if (previousStatus == BookingStatus.REJECTED) {
+                releaseOnRollback(booking);
+            }
             booking.setStatus(BookingStatus.APPROVED);
         } else {
             booking.setStatus(BookingStatus.REJECTED);
         }
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        if (previousStatus != BookingStatus.REJECTED && saved.getStatus() == BookingStatus.REJECTED) {
+            releaseAfterCommit(saved);
+        }
+        bookingEventRepository.save(BookingMapper.toBookingEvent(saved,
+                approve ? BookingEventType.APPROVED : BookingEventType.REJECTED));
+        itemDetailCache.invalidate(saved.getItem().getId());
+        return BookingMapper.toBookingDto(saved);
     }
 
     @Override
-    public List<BookingDto> getUserBooking(BookingTimeState state, long userId, int from, int size) {
-        if (userRepository.findById(userId).isEmpty()) {
-            throw new ResourceNotFoundException("User not found");
-        }
-        Pageable pageable = PageRequest.of(from / size, size);
-        switch (state) {
-            case ALL: {
-                Page<Booking> bookings = bookingRepository.findByBookerIdOrderByStartDesc(userId, pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
-            }
-            case PAST: {
-                LocalDateTime now = LocalDateTime.now();
-                Page<Booking> bookings = bookingRepository.findByBookerIdAndEndIsBeforeOrderByEndDesc(userId, now, pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
-            }
-            case FUTURE: {
-                LocalDateTime now = LocalDateTime.now().minusSeconds(3);
-                Page<Booking> bookings = bookingRepository.findByBookerIdAndStartIsAfterOrderByEndDesc(userId, now, pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+    @Transactional
+    public List<BookingApprovalResultDto> approveBookings(List<BookingApprovalDto> approvals, long userId) {
+        Set<Long> ids = approvals.stream()
+                .map(BookingApprovalDto::getBookingId)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingRepository.findByIdInAndItemOwnerId(ids, userId).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Map<Long, BookingApprovalResultDto> results = new LinkedHashMap<>();
+        List<BookingStatusUpdate> updates = new ArrayList<>();
+        for (BookingApprovalDto approval : approvals) {
+            long bookingId = approval.getBookingId();
+            if (results.containsKey(bookingId)) {
+                continue;
             }
-            case CURRENT: {
-                LocalDateTime now = LocalDateTime.now();
-                Page<Booking> bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndIsAfterOrderByEndDesc(userId, now, now, pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                results.put(bookingId, approvalResult(bookingId, null, "Booking not found"));
+            } else if (booking.getStatus() == BookingStatus.APPROVED) {
+                results.put(bookingId, approvalResult(bookingId, booking.getStatus(), "Booking already approved"));
+            } else if (approval.isApproved() && booking.getStatus() == BookingStatus.REJECTED &&
+                    !availabilityIndex.reserve(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+                results.put(bookingId, approvalResult(bookingId, booking.getStatus(),
+                        "Item is already booked for this time"));
+            } else {
+                if (approval.isApproved() && booking.getStatus() == BookingStatus.REJECTED) {
+                    releaseOnRollback(booking);
+                }
+                BookingStatus status = approval.isApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                updates.add(new BookingStatusUpdate(booking, status));
+                results.put(bookingId, approvalResult(bookingId, status, null));
             }
-            case WAITING: {
-                Page<Booking> bookings = bookingRepository.findByBookerIdAndStatusIsOrderByStartDesc(userId, BookingStatus.WAITING, pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
-            }
-            case REJECTED: {
-                Page<Booking> bookings = bookingRepository.findByBookerIdAndStatusIsOrderByStartDesc(userId, BookingStatus.REJECTED, pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+        }
+        int[] updateCounts = bookingRepository.updateStatuses(updates);
+        List<BookingEvent> events = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            Booking booking = updates.get(i).getBooking();
+            BookingStatus status = updates.get(i).getStatus();
+            if (updateCounts[i] == 0) {
+                if (booking.getStatus() == BookingStatus.REJECTED) {
+                    releaseAfterCommit(booking);
+                }
+                results.put(booking.getId(), approvalResult(booking.getId(), booking.getStatus(),
+                        "Booking was modified by another request"));
+                continue;
             }
-            default: {
-                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+            if (booking.getStatus() != BookingStatus.REJECTED && status == BookingStatus.REJECTED) {
+                releaseAfterCommit(booking);
             }
+            events.add(BookingMapper.toBookingEvent(booking,
+                    status == BookingStatus.APPROVED ? BookingEventType.APPROVED : BookingEventType.REJECTED));
+            itemDetailCache.invalidate(booking.getItem().getId());
+        }
+        bookingEventRepository.saveAll(events);
+        return new ArrayList<>(results.values());
+    }
+
+    @Override
+    public List<BookingDto> getUserBooking(BookingTimeState state, long userId, int from, int size) {
+        return getUserBooking(state, userId, from, size, null, null);
+    }
+
+    @Override
+    public List<BookingDto> getUserBooking(BookingTimeState state, long userId, int from, int size,
+                                           LocalDateTime cursorStart, Long cursorId) {
+        if (userRepository.findById(userId).isEmpty()) {
+            throw new ResourceNotFoundException("User not found");
         }
+        BookingQuery query = BookingQuery.builder()
+                .role(BookingRole.BOOKER)
+                .userId(userId)
+                .state(state)
+                .from(from)
+                .size(size)
+                .cursorStart(cursorStart)
+                .cursorId(cursorId)
+                .build();
+        return findBookings(query);
     }
 
     @Override
     public List<BookingDto> getUserItemBooking(BookingTimeState state, long userId, int from, int size) {
+        return getUserItemBooking(state, userId, from, size, null, null);
+    }
+
+    @Override
+    public List<BookingDto> getUserItemBooking(BookingTimeState state, long userId, int from, int size,
+                                               LocalDateTime cursorStart, Long cursorId) {
         if (userRepository.findById(userId).isEmpty()) {
             throw new ResourceNotFoundException("User not found");
         }
-        List<Item> itemList = itemRepository.findItemsByOwnerIdOrderByIdAsc(userId);
-        List<Long> itemIds = itemList.stream()
-                .map(Item::getId)
+        BookingQuery query = BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(userId)
+                .state(state)
+                .from(from)
+                .size(size)
+                .cursorStart(cursorStart)
+                .cursorId(cursorId)
+                .build();
+        return findBookings(query);
+    }
+
+    @Override
+    public List<BookingEventDto> getEvents(long userId, long after, int size) {
+        // Only events the relay has published are visible, in publish order, so a cursor on publishSeq
+        // never skips an event whose transaction committed late.
+        return bookingEventRepository.findPublishedForUser(after, userId, PageRequest.of(0, size)).stream()
+                .map(BookingMapper::toBookingEventDto)
                 .collect(Collectors.toList());
-        Pageable pageable = PageRequest.of(from / size, size);
-        switch (state) {
-            case ALL: {
-                Page<Booking> bookings = bookingRepository.findByItemIdInOrderByStartDesc(itemIds, pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
-            }
-            case PAST: {
-                Page<Booking> bookings = bookingRepository.findByItemIdInAndEndIsBeforeOrderByEndDesc(itemIds,
-                        LocalDateTime.now(), pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
-            }
-            // LocalDateTime.now().minusSeconds(3) - было в прошлой итерации ТЗ.
-            // Без этого костыля у меня не проходят тесты постман.
-            case FUTURE: {
-                Page<Booking> bookings = bookingRepository.findByItemIdInAndStartIsAfterOrderByEndDesc(itemIds,
-                        LocalDateTime.now().minusSeconds(3), pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
-            }
-            case CURRENT: {
-                Page<Booking> bookings = bookingRepository.findByItemIdInAndStartBeforeAndEndIsAfterOrderByEndDesc(
-                        itemIds, LocalDateTime.now(), LocalDateTime.now(), pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
-            }
-            case WAITING: {
-                Page<Booking> bookings = bookingRepository.findByItemIdInAndStatusIsOrderByStartDesc(itemIds, BookingStatus.WAITING,
-                        pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
-            }
-            case REJECTED: {
-                Page<Booking> bookings = bookingRepository.findByItemIdInAndStatusIsOrderByStartDesc(itemIds, BookingStatus.REJECTED,
-                        pageable);
-                return bookings.stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BookingEventDto> getPublishedEvents(long after, int size) {
+        return bookingEventRepository.findPublished(after, PageRequest.of(0, size)).stream()
+                .map(BookingMapper::toBookingEventDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long getLastPublishedSeq() {
+        return bookingEventRepository.findLastPublishedSeq();
+    }
+
+    private void releaseOnRollback(Booking booking) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    availabilityIndex.release(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+                }
             }
-            default: {
-                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        });
+    }
+
+    private void releaseAfterCommit(Booking booking) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                availabilityIndex.release(booking.getItem().getId(), booking.getStart(), booking.getEnd());
             }
-        }
+        });
+    }
+
+    private BookingApprovalResultDto approvalResult(long bookingId, BookingStatus status, String error) {
+        return BookingApprovalResultDto.builder()
+                .bookingId(bookingId)
+                .status(status)
+                .error(error)
+                .build();
     }
-}
 
+    private List<BookingDto> findBookings(BookingQuery query) {
+        return bookingRepository.findBookings(query).stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+}
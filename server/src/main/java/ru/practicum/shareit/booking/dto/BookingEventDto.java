@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingEventType;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookingEventDto {
+    private long id;
+    private long bookingId;
+    private long itemId;
+    private long bookerId;
+    private long ownerId;
+    private BookingEventType type;
+    private LocalDateTime created;
+    private long publishSeq;
+}
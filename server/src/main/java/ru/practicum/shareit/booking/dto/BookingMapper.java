@@ -1,31 +1,69 @@
 package ru.practicum.shareit.booking.dto;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.BookingEventType;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @UtilityClass
 public class BookingMapper {
 
     public BookingDto toBookingDto(Booking booking) {
-        return BookingDto.builder()
-                .id(booking.getId())
-                .start(booking.getStart())
-                .end(booking.getEnd())
-                .item(booking.getItem())
-                .booker(booking.getBooker())
-                .bookerId(booking.getBooker().getId())
-                .status(booking.getStatus())
-                .build();
+        return new BookingDto(booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                new BookingItemDto(booking.getItem().getId(), booking.getItem().getName()),
+                new BookerDto(booking.getBooker().getId(), booking.getBooker().getName()),
+                booking.getBooker().getId(),
+                booking.getStatus());
+    }
+
+    public BookingDto toBookingDto(BookingView booking) {
+        return new BookingDto(booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                new BookingItemDto(booking.getItemId(), booking.getItemName()),
+                new BookerDto(booking.getBookerId(), booking.getBookerName()),
+                booking.getBookerId(),
+                booking.getStatus());
     }
 
     public Booking toBookingFromAddDto(BookingAddDto bookingAddDto) {
         return Booking.builder()
                 .id(0)
-                .start(bookingAddDto.getStart())
-                .end(bookingAddDto.getEnd())
+                .start(bookingAddDto.getStart().truncatedTo(ChronoUnit.MICROS))
+                .end(bookingAddDto.getEnd().truncatedTo(ChronoUnit.MICROS))
                 .item(null)
                 .booker(null)
                 .status(null)
                 .build();
     }
+
+    public BookingEvent toBookingEvent(Booking booking, BookingEventType type) {
+        return BookingEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .type(type)
+                .created(LocalDateTime.now())
+                .build();
+    }
+
+    public BookingEventDto toBookingEventDto(BookingEvent event) {
+        return BookingEventDto.builder()
+                .id(event.getId())
+                .bookingId(event.getBookingId())
+                .itemId(event.getItemId())
+                .bookerId(event.getBookerId())
+                .ownerId(event.getOwnerId())
+                .type(event.getType())
+                .created(event.getCreated())
+                .publishSeq(event.getPublishSeq())
+                .build();
+    }
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.model;
 
 import lombok.*;
+import ru.practicum.shareit.booking.BookingPhase;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -18,7 +19,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "start_date")
@@ -28,14 +30,23 @@ public class Booking {
     private LocalDateTime end;
 
     @JoinColumn(name = "item_id")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     private Item item;
 
     @JoinColumn(name = "booker_id")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     private User booker;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "booking_status")
     private BookingStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", insertable = false, updatable = false)
+    private BookingPhase phase;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import ru.practicum.shareit.booking.BookingEventType;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_events")
+@Builder
+public class BookingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_events_seq")
+    @SequenceGenerator(name = "booking_events_seq", sequenceName = "booking_events_seq", allocationSize = 50)
+    private long id;
+
+    @Column(name = "booking_id")
+    private long bookingId;
+
+    @Column(name = "item_id")
+    private long itemId;
+
+    @Column(name = "booker_id")
+    private long bookerId;
+
+    @Column(name = "owner_id")
+    private long ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type")
+    private BookingEventType type;
+
+    private LocalDateTime created;
+
+    @Column(name = "publish_seq")
+    private Long publishSeq;
+}
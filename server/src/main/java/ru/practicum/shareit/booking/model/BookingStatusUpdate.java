@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.BookingStatus;
+
+@Getter
+@AllArgsConstructor
+public class BookingStatusUpdate {
+    private final Booking booking;
+    private final BookingStatus status;
+}
@@ -1,10 +1,19 @@
 package ru.practicum.shareit.comment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.model.CommentView;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemId(long itemId);
+
+    @Query("select new ru.practicum.shareit.comment.model.CommentView(c.id, c.text, c.itemId, a.id, a.name, c.created) " +
+            "from Comment c join c.author a " +
+            "where c.itemId in :itemIds " +
+            "order by c.id")
+    List<CommentView> findByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 }
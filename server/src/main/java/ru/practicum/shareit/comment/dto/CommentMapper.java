@@ -2,6 +2,7 @@ package ru.practicum.shareit.comment.dto;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.model.CommentView;
 
 @UtilityClass
 public class CommentMapper {
@@ -17,6 +18,15 @@ public class CommentMapper {
                 .build();
     }
 
+    public CommentDto toCommentDto(CommentView comment) {
+        return new CommentDto(comment.getId(),
+                comment.getText(),
+                comment.getItemId(),
+                comment.getAuthorId(),
+                comment.getAuthorName(),
+                comment.getCreated());
+    }
+
     public Comment fromCommentDto(CommentAddDto commentAddDto) {
         return Comment.builder()
                 .id(0)
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.comment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class CommentView {
+    private final long id;
+    private final String text;
+    private final long itemId;
+    private final long authorId;
+    private final String authorName;
+    private final LocalDateTime created;
+}
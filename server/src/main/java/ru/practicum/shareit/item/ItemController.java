@@ -1,11 +1,18 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.comment.dto.CommentAddDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import static ru.practicum.shareit.utils.BaseConstants.HEADER;
@@ -15,10 +22,12 @@ import static ru.practicum.shareit.utils.BaseConstants.HEADER;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ObjectMapper objectMapper) {
         this.itemService = itemService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{itemId}")
@@ -27,8 +36,11 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemDto> getItems(@RequestHeader(HEADER) long userId) {
-        return itemService.getItems(userId);
+    public List<ItemDto> getItems(@RequestHeader(HEADER) long userId,
+                                  @RequestParam(defaultValue = "0") int from,
+                                  @RequestParam(defaultValue = "10") int size,
+                                  @RequestParam(required = false) Long cursorId) {
+        return itemService.getItems(userId, from, size, cursorId);
     }
 
     @PostMapping
@@ -36,6 +48,32 @@ public class ItemController {
         return itemService.addItem(itemDto, userId);
     }
 
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ItemImportResultDto importItems(@RequestHeader(HEADER) long userId,
+                                           @RequestBody List<ItemDto> items) {
+        return itemService.importItems(userId, items.iterator());
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportResultDto importItemsStream(@RequestHeader(HEADER) long userId, InputStream body) {
+        return itemService.importItems(userId, new ItemImportReader(body, objectMapper.readerFor(ItemDto.class)));
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody importItemsWithProgress(@RequestHeader(HEADER) long userId, InputStream body) {
+        ItemImportReader items = new ItemImportReader(body, objectMapper.readerFor(ItemDto.class));
+        return out -> itemService.importItems(userId, items, progress -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(progress));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@PathVariable long itemId, @RequestHeader(HEADER) long userId,
                               @RequestBody ItemDto itemDto) {
@@ -44,8 +82,30 @@ public class ItemController {
 
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestHeader(HEADER) long userId,
-                                     @RequestParam("text") String text) {
-        return itemService.searchItems(userId, text);
+                                     @RequestParam("text") String text,
+                                     @RequestParam(defaultValue = "0") int from,
+                                     @RequestParam(defaultValue = "10") int size) {
+        return itemService.searchItems(userId, text, from, size);
+    }
+
+    @GetMapping(path = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamSearchItems(@RequestHeader(HEADER) long userId,
+                                                   @RequestParam("text") String text) {
+        return out -> itemService.streamSearchItems(userId, text, item -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(item));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItems(@RequestHeader(HEADER) long userId,
+                                     @RequestParam("prefix") String prefix,
+                                     @RequestParam(defaultValue = "10") int size) {
+        return itemService.suggestItems(userId, prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Assembled item details (item, comments, last and next booking) keyed by item id. Entries are weighed by
+ * their text length and expire after the ttl or when the next booking starts, whichever comes first, since
+ * that is when the booking summary turns stale on its own. Writers invalidate the item right away and
+ * again after their transaction commits, so a read racing the commit cannot keep the old view. A user write
+ * drops every entry that shows the user, as owner, comment author or booker; user writes are rare enough
+ * that scanning the cache beats tracking entries per user.
+ */
+@Component
+public class ItemDetailCache {
+    public static final String NAME = "itemDetails";
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<Long, ItemDto> cache;
+
+    @Autowired
+    public ItemDetailCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.item.cache.max-weight:4000000}") long maxWeight,
+                           @Value("${shareit.item.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(meterRegistry, maxWeight, ttlSeconds, Ticker.systemTicker(), Clock.systemDefaultZone());
+    }
+
+    ItemDetailCache(MeterRegistry meterRegistry, long maxWeight, long ttlSeconds, Ticker ticker, Clock clock) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long itemId, ItemDto itemDto) -> weigh(itemDto))
+                .expireAfter(new BookingAwareExpiry(Duration.ofSeconds(ttlSeconds), clock))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    public ItemDto get(long itemId, Function<Long, ItemDto> loader) {
+        return copy(cache.get(itemId, loader));
+    }
+
+    public void invalidate(long itemId) {
+        invalidateNowAndAfterCommit(() -> cache.invalidate(itemId));
+    }
+
+    public void invalidateUser(long userId) {
+        invalidateNowAndAfterCommit(() -> cache.asMap().values().removeIf(itemDto -> shows(itemDto, userId)));
+    }
+
+    private void invalidateNowAndAfterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static boolean shows(ItemDto itemDto, long userId) {
+        if (itemDto.getOwner() != null && itemDto.getOwner().getId() == userId) {
+            return true;
+        }
+        if (itemDto.getLastBooking() != null && itemDto.getLastBooking().getBookerId() == userId ||
+                itemDto.getNextBooking() != null && itemDto.getNextBooking().getBookerId() == userId) {
+            return true;
+        }
+        return itemDto.getComments().stream().anyMatch(comment -> Objects.equals(comment.getAuthorId(), userId));
+    }
+
+    private static ItemDto copy(ItemDto itemDto) {
+        return new ItemDto(itemDto.getId(),
+                itemDto.getName(),
+                itemDto.getDescription(),
+                itemDto.getAvailable(),
+                itemDto.getOwner(),
+                itemDto.getRequestId(),
+                itemDto.getLastBooking(),
+                itemDto.getNextBooking(),
+                new ArrayList<>(itemDto.getComments()));
+    }
+
+    private static int weigh(ItemDto itemDto) {
+        long weight = ENTRY_OVERHEAD + length(itemDto.getName()) + length(itemDto.getDescription());
+        for (CommentDto comment : itemDto.getComments()) {
+            weight += ENTRY_OVERHEAD + length(comment.getText()) + length(comment.getAuthorName());
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static class BookingAwareExpiry implements Expiry<Long, ItemDto> {
+        private final Duration ttl;
+        private final Clock clock;
+
+        BookingAwareExpiry(Duration ttl, Clock clock) {
+            this.ttl = ttl;
+            this.clock = clock;
+        }
+
+        @Override
+        public long expireAfterCreate(Long itemId, ItemDto itemDto, long currentTime) {
+            if (itemDto.getNextBooking() == null) {
+                return ttl.toNanos();
+            }
+            Duration untilNext = Duration.between(LocalDateTime.now(clock), itemDto.getNextBooking().getStart());
+            if (untilNext.isNegative()) {
+                return 0;
+            }
+            return untilNext.compareTo(ttl) < 0 ? untilNext.toNanos() : ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, ItemDto itemDto, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, itemDto, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, ItemDto itemDto, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads NDJSON items one line at a time. Each line is parsed on its own, so a malformed line only fails its
+ * own {@link #next()} with a {@link ValidationException} and reading goes on with the following line.
+ * Blank lines are skipped.
+ */
+public class ItemImportReader implements Iterator<ItemDto> {
+
+    private final BufferedReader reader;
+    private final ObjectReader itemReader;
+    private String line;
+
+    public ItemImportReader(InputStream body, ObjectReader itemReader) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.itemReader = itemReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (line == null) {
+                line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                if (line.isBlank()) {
+                    line = null;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ItemDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String current = line;
+        line = null;
+        try {
+            return itemReader.readValue(current);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+}
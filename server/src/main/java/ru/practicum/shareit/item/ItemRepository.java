@@ -1,27 +1,29 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.RequestItemDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Component
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
 
-    List<Item> findItemsByOwnerIdOrderByIdAsc(Long ownerId);
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    Optional<Item> findById(Long id);
 
-    @Query("select i\n" +
-            "from Item i \n" +
-            "where upper(i.name) like upper(concat('%', ?1, '%'))\n" +
-            "or upper(i.description) like upper(concat('%', ?1, '%'))\n" +
-            "and i.available = true")
-    List<Item> search(String text);
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllById(Iterable<Long> ids);
 
-    List<Item> findByRequestId(long requestId);
-
-    @Query("SELECT i FROM Item i WHERE i.requestId IN :requestIds")
-    List<Item> findByRequestIdIn(@Param("requestIds") List<Long> requestIds);
+    @Query("SELECT new ru.practicum.shareit.request.dto.RequestItemDto(i.id, i.name, i.description, i.available, " +
+            "i.requestId, i.owner.id) FROM Item i WHERE i.requestId IN :requestIds ORDER BY i.id")
+    List<RequestItemDto> findRequestItems(@Param("requestIds") Collection<Long> requestIds);
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+    List<Item> findOwnerItems(long ownerId, Long cursorId, int from, int size);
+
+    void insertItems(List<Item> items);
+
+    List<Long> searchIds(String text, int from, int size);
+
+    List<Long> searchIdsByTrigram(String text, int from, int size);
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Owner listing pages by offset or, when a cursor is given, by keyset on id so deep pages cost the same
+ * as the first one. Neither issues a count query.
+ * <p>
+ * Imported items are written as one JDBC batch with ids taken from items_seq the way Hibernate's pooled
+ * optimizer takes them: one nextval reserves the block of ID_BLOCK ids ending at the returned value, so the
+ * batch neither burns a sequence step per row nor collides with ids Hibernate hands out.
+ * <p>
+ * Database item search returning one page of ids. The trigram variant relies on the pg_trgm GIN indexes
+ * from schema-postgresql.sql and orders matches by similarity, so it only runs on PostgreSQL. The text is
+ * matched literally: LIKE wildcards in it are escaped with LIKE_ESCAPE.
+ */
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    private static final int ID_BLOCK = 50;
+    private static final char LIKE_ESCAPE = '!';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Item> findOwnerItems(long ownerId, Long cursorId, int from, int size) {
+        TypedQuery<Item> query;
+        if (cursorId == null) {
+            query = entityManager.createQuery("select i from Item i join fetch i.owner " +
+                            "where i.owner.id = :ownerId " +
+                            "order by i.id", Item.class)
+                    .setFirstResult(from);
+        } else {
+            query = entityManager.createQuery("select i from Item i join fetch i.owner " +
+                            "where i.owner.id = :ownerId and i.id > :cursorId " +
+                            "order by i.id", Item.class)
+                    .setParameter("cursorId", cursorId);
+        }
+        return query.setParameter("ownerId", ownerId)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public void insertItems(List<Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        long nextId = 0;
+        long blockEnd = -1;
+        for (Item item : items) {
+            if (nextId > blockEnd) {
+                blockEnd = jdbcTemplate.queryForObject("SELECT nextval('items_seq')", Long.class);
+                nextId = Math.max(1, blockEnd - ID_BLOCK + 1);
+            }
+            item.setId(nextId++);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, available, owner_id, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", items, items.size(), (statement, item) -> {
+                    statement.setLong(1, item.getId());
+                    statement.setString(2, item.getName());
+                    statement.setString(3, item.getDescription());
+                    statement.setBoolean(4, item.getAvailable());
+                    statement.setLong(5, item.getOwner().getId());
+                    if (item.getRequestId() == null) {
+                        statement.setNull(6, Types.BIGINT);
+                    } else {
+                        statement.setLong(6, item.getRequestId());
+                    }
+                });
+    }
+
+    @Override
+    public List<Long> searchIds(String text, int from, int size) {
+        return entityManager.createQuery("select i.id " +
+                        "from Item i " +
+                        "where (upper(i.name) like upper(:pattern) escape '" + LIKE_ESCAPE + "' " +
+                        "or upper(i.description) like upper(:pattern) escape '" + LIKE_ESCAPE + "') " +
+                        "and i.available = true " +
+                        "order by i.id", Long.class)
+                .setParameter("pattern", containsPattern(text))
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> searchIdsByTrigram(String text, int from, int size) {
+        List<Number> ids = entityManager.createNativeQuery("SELECT i.id " +
+                        "FROM items i " +
+                        "WHERE i.available = true " +
+                        "AND (i.name ILIKE :pattern ESCAPE '" + LIKE_ESCAPE + "' " +
+                        "OR i.description ILIKE :pattern ESCAPE '" + LIKE_ESCAPE + "') " +
+                        "ORDER BY GREATEST(similarity(i.name, :text), similarity(i.description, :text)) DESC, i.id " +
+                        "LIMIT :size OFFSET :from")
+                .setParameter("pattern", containsPattern(text))
+                .setParameter("text", text)
+                .setParameter("size", size)
+                .setParameter("from", from)
+                .getResultList();
+        return ids.stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+    }
+
+    private static String containsPattern(String text) {
+        StringBuilder pattern = new StringBuilder(text.length() + 2).append('%');
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Search backend for available items, selected with {@code shareit.item.search.backend}:
+ * {@code index} (in-memory, the default), {@code like} or {@code trigram} (PostgreSQL pg_trgm).
+ */
+public interface ItemSearch {
+
+    List<Long> search(String text, int from, int size);
+
+    default void put(Item item) {
+    }
+}
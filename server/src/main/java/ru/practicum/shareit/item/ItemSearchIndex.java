@@ -0,0 +1,438 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory inverted index from the one-, two- and three-character grams of name and description words to the
+ * ids of available items. A query is answered by intersecting the postings of the longest grams of its words
+ * (trigrams, or the whole word when it is shorter) and checking the substring match against the stored
+ * lower-cased text. Queries without a word of at least three characters only look at the newest
+ * SHORT_QUERY_CANDIDATES candidates, and queries without any word match nothing, so no query scans every
+ * document. Matches are ranked with BM25 over the query words, name hits counting twice, and only the
+ * requested page is kept in a bounded heap. An update only touches the postings of the grams it adds or drops,
+ * and none when the text is unchanged.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.item.search.backend", havingValue = "index", matchIfMissing = true)
+public class ItemSearchIndex implements ItemSearch {
+    private static final int GRAM = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 2;
+    private static final int SHORT_QUERY_CANDIDATES = 10_000;
+    private static final Comparator<ScoredItem> RANK_ORDER = Comparator.comparingDouble(ScoredItem::getScore)
+            .reversed()
+            .thenComparingLong(ScoredItem::getId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    public ItemSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void load() {
+        jdbcTemplate.query("SELECT id, name, description FROM items WHERE available = true ORDER BY id",
+                (RowCallbackHandler) rs -> put(rs.getLong("id"), rs.getString("name"), rs.getString("description")));
+    }
+
+    @Override
+    public void put(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            put(item.getId(), item.getName(), item.getDescription());
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    public void put(long id, String name, String description) {
+        Document document = new Document(name.toLowerCase(Locale.ROOT), description.toLowerCase(Locale.ROOT));
+        Set<Long> grams = indexGrams(document.text());
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.put(id, document);
+            if (previous != null && previous.text().equals(document.text())) {
+                return;
+            }
+            Set<Long> previousGrams = Set.of();
+            if (previous != null) {
+                totalLength -= previous.length;
+                previousGrams = indexGrams(previous.text());
+                for (Long gram : previousGrams) {
+                    if (!grams.contains(gram)) {
+                        removePosting(gram, id);
+                    }
+                }
+            }
+            for (Long gram : grams) {
+                if (!previousGrams.contains(gram)) {
+                    postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+                }
+            }
+            totalLength += document.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<String> terms = words(query);
+        int limit = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+        if (limit <= from) {
+            return List.of();
+        }
+        PriorityQueue<ScoredItem> page = new PriorityQueue<>(RANK_ORDER.reversed());
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documents.size();
+            double[] idf = new double[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                int frequency = frequency(queryGrams(terms.get(i)));
+                idf[i] = Math.log(1 + (documents.size() - frequency + 0.5) / (frequency + 0.5));
+            }
+            Set<Long> grams = queryGrams(query);
+            if (grams.isEmpty()) {
+                return List.of();
+            }
+            boolean shortQuery = terms.stream().allMatch(term -> term.length() < GRAM);
+            for (Long id : candidates(grams, shortQuery ? SHORT_QUERY_CANDIDATES : Integer.MAX_VALUE)) {
+                Document document = documents.get(id);
+                if (!document.name.contains(query) && !document.description.contains(query)) {
+                    continue;
+                }
+                ScoredItem scored = new ScoredItem(id, score(document, terms, idf, averageLength));
+                if (page.size() < limit) {
+                    page.add(scored);
+                } else if (RANK_ORDER.compare(scored, page.peek()) < 0) {
+                    page.poll();
+                    page.add(scored);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ScoredItem> ranked = new ArrayList<>(page);
+        ranked.sort(RANK_ORDER);
+        List<Long> ids = new ArrayList<>(Math.max(0, ranked.size() - from));
+        for (int i = from; i < ranked.size(); i++) {
+            ids.add(ranked.get(i).getId());
+        }
+        return ids;
+    }
+
+    private void removeDocument(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length;
+        for (Long gram : indexGrams(document.text())) {
+            removePosting(gram, id);
+        }
+    }
+
+    private void removePosting(Long gram, long id) {
+        Postings gramPostings = postings.get(gram);
+        if (gramPostings != null) {
+            gramPostings.remove(id);
+            if (gramPostings.live == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private int frequency(Set<Long> grams) {
+        if (grams.size() == 1) {
+            Postings gramPostings = postings.get(grams.iterator().next());
+            return gramPostings == null ? 0 : gramPostings.live;
+        }
+        return candidates(grams, Integer.MAX_VALUE).size();
+    }
+
+    private List<Long> candidates(Set<Long> grams, int maxCandidates) {
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (Long gram : grams) {
+            Postings gramPostings = postings.get(gram);
+            if (gramPostings == null) {
+                return Collections.emptyList();
+            }
+            lists.add(gramPostings);
+        }
+        lists.sort(Comparator.comparingInt(gramPostings -> gramPostings.live));
+        List<Long> candidates = new ArrayList<>();
+        lists.get(0).forEachDescending(id -> {
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).contains(id)) {
+                    return true;
+                }
+            }
+            candidates.add(id);
+            return candidates.size() < maxCandidates;
+        });
+        return candidates;
+    }
+
+    private static double score(Document document, List<String> terms, double[] idf, double averageLength) {
+        double score = 0;
+        double norm = K1 * (1 - B + B * document.length / averageLength);
+        for (int i = 0; i < terms.size(); i++) {
+            int frequency = NAME_WEIGHT * occurrences(document.name, terms.get(i)) +
+                    occurrences(document.description, terms.get(i));
+            score += idf[i] * frequency * (K1 + 1) / (frequency + norm);
+        }
+        return score;
+    }
+
+    private static int occurrences(String text, String term) {
+        int count = 0;
+        for (int index = text.indexOf(term); index >= 0; index = text.indexOf(term, index + term.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        int wordStart = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && wordStart < 0) {
+                wordStart = i;
+            } else if (!wordChar && wordStart >= 0) {
+                words.add(text.substring(wordStart, i));
+                wordStart = -1;
+            }
+        }
+        return words;
+    }
+
+    private static Set<Long> indexGrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (String word : words(text.toLowerCase(Locale.ROOT))) {
+            for (int length = 1; length <= GRAM; length++) {
+                addGrams(grams, word, length);
+            }
+        }
+        return grams;
+    }
+
+    private static Set<Long> queryGrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (String word : words(text.toLowerCase(Locale.ROOT))) {
+            addGrams(grams, word, Math.min(GRAM, word.length()));
+        }
+        return grams;
+    }
+
+    private static void addGrams(Set<Long> grams, String word, int length) {
+        for (int j = 0; j + length <= word.length(); j++) {
+            long gram = length;
+            for (int k = j; k < j + length; k++) {
+                gram = (gram << 16) | word.charAt(k);
+            }
+            grams.add(gram);
+        }
+    }
+
+    private static final class Document {
+        private final String name;
+        private final String description;
+        private final int length;
+
+        private Document(String name, String description) {
+            this.name = name;
+            this.description = description;
+            this.length = Math.max(1, words(name).size() + words(description).size());
+        }
+
+        private String text() {
+            return name + " " + description;
+        }
+    }
+
+    private static final class ScoredItem {
+        private final long id;
+        private final double score;
+
+        private ScoredItem(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        private long getId() {
+            return id;
+        }
+
+        private double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Ids of the documents holding a gram. Ids come in ascending order as items are created and loaded, so
+     * they are appended to a sorted array; an id added out of order goes to a small sorted tail. A removed id
+     * only leaves a tombstone. The array is rebuilt once tombstones make up half of it or the tail grows past
+     * a sixty-fourth of it, so a rebuild is paid for by as many writes as it copies ids, over a sixty-fourth.
+     */
+    private static final class Postings {
+        private static final int MIN_TAIL = 64;
+        private static final int TAIL_SHIFT = 6;
+
+        private long[] ids = new long[4];
+        private int size;
+        private final BitSet removed = new BitSet();
+        private int tombstones;
+        private long[] tail = new long[0];
+        private int tailSize;
+        private int live;
+
+        private void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                if (removed.get(index)) {
+                    removed.clear(index);
+                    tombstones--;
+                    live++;
+                }
+                return;
+            }
+            if (size == 0 || id > ids[size - 1]) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = id;
+                live++;
+                return;
+            }
+            index = Arrays.binarySearch(tail, 0, tailSize, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (tailSize == tail.length) {
+                tail = Arrays.copyOf(tail, Math.max(4, tailSize * 2));
+            }
+            System.arraycopy(tail, index, tail, index + 1, tailSize - index);
+            tail[index] = id;
+            tailSize++;
+            live++;
+            if (tailSize > Math.max(MIN_TAIL, size >> TAIL_SHIFT)) {
+                compact();
+            }
+        }
+
+        private void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                if (!removed.get(index)) {
+                    removed.set(index);
+                    tombstones++;
+                    live--;
+                    if (tombstones * 2 > size) {
+                        compact();
+                    }
+                }
+                return;
+            }
+            index = Arrays.binarySearch(tail, 0, tailSize, id);
+            if (index >= 0) {
+                System.arraycopy(tail, index + 1, tail, index, tailSize - index - 1);
+                tailSize--;
+                live--;
+            }
+        }
+
+        private boolean contains(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return tombstones == 0 || !removed.get(index);
+            }
+            return tailSize > 0 && Arrays.binarySearch(tail, 0, tailSize, id) >= 0;
+        }
+
+        /**
+         * Passes the live ids to the action from the highest down while it returns true.
+         */
+        private void forEachDescending(LongPredicate action) {
+            int i = size - 1;
+            int j = tailSize - 1;
+            while (i >= 0 || j >= 0) {
+                long id;
+                if (j < 0 || (i >= 0 && ids[i] > tail[j])) {
+                    if (tombstones > 0 && removed.get(i)) {
+                        i--;
+                        continue;
+                    }
+                    id = ids[i--];
+                } else {
+                    id = tail[j--];
+                }
+                if (!action.test(id)) {
+                    return;
+                }
+            }
+        }
+
+        private void compact() {
+            long[] compacted = new long[Math.max(4, live)];
+            int count = 0;
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                if (removed.get(i)) {
+                    continue;
+                }
+                while (j < tailSize && tail[j] < ids[i]) {
+                    compacted[count++] = tail[j++];
+                }
+                compacted[count++] = ids[i];
+            }
+            while (j < tailSize) {
+                compacted[count++] = tail[j++];
+            }
+            ids = compacted;
+            size = count;
+            removed.clear();
+            tombstones = 0;
+            tailSize = 0;
+        }
+    }
+}
@@ -3,21 +3,32 @@ package ru.practicum.shareit.item;
 import ru.practicum.shareit.comment.dto.CommentAddDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 
 import javax.validation.Valid;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
     ItemDto getItemById(long itemId, long userId);
 
-    List<ItemDto> getItems(long userId);
+    List<ItemDto> getItems(long userId, int from, int size, Long cursorId);
 
     ItemDto addItem(@Valid ItemDto itemDto, long userId);
 
+    ItemImportResultDto importItems(long userId, Iterator<ItemDto> items);
+
+    ItemImportResultDto importItems(long userId, Iterator<ItemDto> items, Consumer<ItemImportResultDto> progress);
+
     ItemDto updateItem(long itemId, long userId, ItemDto itemDto);
 
-    List<ItemDto> searchItems(long userId, String text);
+    List<ItemDto> searchItems(long userId, String text, int from, int size);
+
+    void streamSearchItems(long userId, String text, Consumer<ItemDto> consumer);
+
+    List<String> suggestItems(long userId, String prefix, int size);
 
     CommentDto addComment(CommentAddDto comment, long userId, long itemId);
 
@@ -1,8 +1,13 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.comment.CommentRepository;
@@ -13,84 +18,124 @@ import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.RequestMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class ItemServiceImpl implements ItemService {
+    private static final int SEARCH_CHUNK_SIZE = 100;
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final int MAX_NAME_LENGTH = 200;
+    private static final int MAX_DESCRIPTION_LENGTH = 250;
 
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearch itemSearch;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemDetailCache itemDetailCache;
+    private final ItemRequestRepository itemRequestRepository;
+    private final RequestMatcher requestMatcher;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository,
                            UserRepository userRepository,
                            BookingRepository bookingRepository,
-                           CommentRepository commentRepository) {
+                           CommentRepository commentRepository,
+                           ItemSearch itemSearch,
+                           ItemSuggestIndex itemSuggestIndex,
+                           ItemDetailCache itemDetailCache,
+                           ItemRequestRepository itemRequestRepository,
+                           RequestMatcher requestMatcher,
+                           MeterRegistry meterRegistry) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
+        this.itemSearch = itemSearch;
+        this.itemSuggestIndex = itemSuggestIndex;
+        this.itemDetailCache = itemDetailCache;
+        this.itemRequestRepository = itemRequestRepository;
+        this.requestMatcher = requestMatcher;
+        this.importedRows = meterRegistry.counter("shareit.item.import.rows", "outcome", "imported");
+        this.rejectedRows = meterRegistry.counter("shareit.item.import.rows", "outcome", "rejected");
     }
 
     @Override
     public ItemDto getItemById(long itemId, long userId) {
+        ItemDto itemDto = itemDetailCache.get(itemId, this::loadItemDetails);
+        if (itemDto.getOwner().getId() != userId) {
+            itemDto.setLastBooking(null);
+            itemDto.setNextBooking(null);
+        }
+        return itemDto;
+    }
+
+    private ItemDto loadItemDetails(long itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new ResourceNotFoundException("Item not found"));
-        List<Booking> lastBookingList = bookingRepository.findLastBooking(itemId);
-        List<Booking> nextBookingList = bookingRepository.findNextBooking(itemId);
         ItemDto itemDto = ItemMapper.toItemDto(item);
         itemDto.setComments(findItemComments(itemId));
-        if (item.getOwner().getId() != userId) {
-            return itemDto;
-        }
-        if (!lastBookingList.isEmpty()) {
-            if (lastBookingList.size() > 1) {
-                Booking booking = lastBookingList.get(0);
-                for (int i = 1; i < lastBookingList.size(); i++) {
-                    if (lastBookingList.get(i).getStart().compareTo(booking.getStart()) > 0) {
-                        booking = lastBookingList.get(i);
-                    }
-                }
-                itemDto.setLastBooking(BookingMapper.toBookingDto(booking));
-            } else {
-                itemDto.setLastBooking(BookingMapper.toBookingDto(lastBookingList.get(0)));
-            }
-        }
-        if (!nextBookingList.isEmpty()) {
-            if (!itemDto.getLastBooking().equals(BookingMapper.toBookingDto(nextBookingList.get(0)))) {
-                itemDto.setNextBooking(BookingMapper.toBookingDto(nextBookingList.get(0)));
-            }
-        }
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.findFirstByItemIdAndStatusNotAndStartBeforeOrderByStartDesc(itemId,
+                        BookingStatus.REJECTED, now)
+                .map(BookingMapper::toBookingDto)
+                .ifPresent(itemDto::setLastBooking);
+        bookingRepository.findFirstByItemIdAndStatusNotAndStartAfterOrderByStartAsc(itemId,
+                        BookingStatus.REJECTED, now)
+                .map(BookingMapper::toBookingDto)
+                .ifPresent(itemDto::setNextBooking);
         return itemDto;
     }
 
     @Override
-    public List<ItemDto> getItems(long userId) {
-        List<Item> itemList = itemRepository.findItemsByOwnerIdOrderByIdAsc(userId);
-        List<Booking> bookingList = new ArrayList<>();
-        for (Item item : itemList) {
-            bookingList.addAll(bookingRepository.findByItemIdOrderByStartDesc(item.getId()));
-        }
-        List<ItemDto> dtoList = itemList.stream()
+    @Transactional(readOnly = true)
+    public List<ItemDto> getItems(long userId, int from, int size, Long cursorId) {
+        List<ItemDto> dtoList = itemRepository.findOwnerItems(userId, cursorId, from, size).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
-        for (Booking booking : bookingList) {
-            for (ItemDto itemDto : dtoList) {
-                if (booking.getItem().getId() == itemDto.getId()) {
-                    itemDto.setNextBooking(BookingMapper.toBookingDto(bookingList.get(bookingList.size() - 2)));
-                    itemDto.setLastBooking(BookingMapper.toBookingDto(bookingList.get(bookingList.size() - 1)));
-                }
+        if (dtoList.isEmpty()) {
+            return dtoList;
+        }
+        Map<Long, ItemDto> dtoById = dtoList.stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> bookingIds = bookingRepository.findLastAndNextBookingIds(dtoById.keySet(), now);
+        List<Booking> bookings = bookingIds.isEmpty() ? List.of() : bookingRepository.findByIdIn(bookingIds);
+        for (Booking booking : bookings) {
+            ItemDto itemDto = dtoById.get(booking.getItem().getId());
+            if (booking.getStart().isBefore(now)) {
+                itemDto.setLastBooking(BookingMapper.toBookingDto(booking));
+            } else {
+                itemDto.setNextBooking(BookingMapper.toBookingDto(booking));
             }
         }
+        findCommentsByItemIds(dtoById.keySet()).forEach((itemId, comments) ->
+                dtoById.get(itemId).setComments(comments));
         return dtoList;
     }
 
@@ -108,7 +153,114 @@ public class ItemServiceImpl implements ItemService {
         }
         item.setOwner(userRepository.findById(userId).orElseThrow(() ->
                 new ResourceNotFoundException("User not found")));
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        if (item.getRequestId() != null && !itemRequestRepository.existsById(item.getRequestId())) {
+            throw new ResourceNotFoundException("Request not found");
+        }
+        Item saved = itemRepository.save(item);
+        itemSearch.put(saved);
+        itemSuggestIndex.put(saved);
+        requestMatcher.itemsAdded(List.of(saved));
+        return ItemMapper.toItemDto(saved);
+    }
+
+    @Override
+    public ItemImportResultDto importItems(long userId, Iterator<ItemDto> items) {
+        return importItems(userId, items, progress -> {
+        });
+    }
+
+    @Override
+    public ItemImportResultDto importItems(long userId, Iterator<ItemDto> items,
+                                           Consumer<ItemImportResultDto> progress) {
+        User owner = userRepository.findById(userId).orElseThrow(() ->
+                new ResourceNotFoundException("User not found"));
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        List<Item> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<Integer> batchRows = new ArrayList<>(IMPORT_BATCH_SIZE);
+        int row = 0;
+        int imported = 0;
+        while (items.hasNext()) {
+            ItemDto itemDto = null;
+            String error;
+            try {
+                itemDto = items.next();
+                error = validateImportedItem(itemDto);
+            } catch (ValidationException e) {
+                error = e.getMessage();
+            }
+            if (error != null) {
+                errors.add(new ItemImportErrorDto(row, error));
+            } else {
+                Item item = ItemMapper.fromItemDto(itemDto);
+                item.setOwner(owner);
+                batch.add(item);
+                batchRows.add(row);
+            }
+            row++;
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                imported += insertImportBatch(batch, batchRows, errors);
+                log.info("Item import for user {}: {} rows read, {} imported", userId, row, imported);
+                progress.accept(new ItemImportResultDto(row, imported, errors.size(), false, List.of()));
+            }
+        }
+        imported += insertImportBatch(batch, batchRows, errors);
+        errors.sort(Comparator.comparingInt(ItemImportErrorDto::getRow));
+        importedRows.increment(imported);
+        rejectedRows.increment(errors.size());
+        log.info("Item import for user {} finished: {} imported, {} rejected", userId, imported, errors.size());
+        ItemImportResultDto result = new ItemImportResultDto(row, imported, errors.size(), true, errors);
+        progress.accept(result);
+        return result;
+    }
+
+    private String validateImportedItem(ItemDto itemDto) {
+        if (itemDto == null) {
+            return "Item must not be null";
+        }
+        if (itemDto.getAvailable() == null) {
+            return "Available must not be null";
+        }
+        if (itemDto.getName() == null || itemDto.getName().isEmpty()) {
+            return "Name must not be null";
+        }
+        if (itemDto.getName().length() > MAX_NAME_LENGTH) {
+            return "Name must not be longer than " + MAX_NAME_LENGTH;
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isEmpty()) {
+            return "Description must not be null";
+        }
+        if (itemDto.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Description must not be longer than " + MAX_DESCRIPTION_LENGTH;
+        }
+        return null;
+    }
+
+    private int insertImportBatch(List<Item> batch, List<Integer> batchRows, List<ItemImportErrorDto> errors) {
+        Set<Long> requestIds = batch.stream()
+                .map(Item::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> knownRequestIds = itemRequestRepository.findAllById(requestIds).stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+        List<Item> valid = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Item item = batch.get(i);
+            if (item.getRequestId() != null && !knownRequestIds.contains(item.getRequestId())) {
+                errors.add(new ItemImportErrorDto(batchRows.get(i), "Request not found"));
+            } else {
+                valid.add(item);
+            }
+        }
+        itemRepository.insertItems(valid);
+        for (Item item : valid) {
+            itemSearch.put(item);
+            itemSuggestIndex.put(item);
+        }
+        requestMatcher.itemsAdded(valid);
+        batch.clear();
+        batchRows.clear();
+        return valid.size();
     }
 
     @Override
@@ -128,16 +280,50 @@ public class ItemServiceImpl implements ItemService {
         if (item.getAvailable() != null) {
             newItem.setAvailable(item.getAvailable());
         }
-        return ItemMapper.toItemDto(itemRepository.save(newItem));
+        Item saved = itemRepository.save(newItem);
+        itemDetailCache.invalidate(itemId);
+        itemSearch.put(saved);
+        itemSuggestIndex.put(saved);
+        requestMatcher.itemsAdded(List.of(saved));
+        return ItemMapper.toItemDto(saved);
     }
 
     @Override
-    public List<ItemDto> searchItems(long userId, String text) {
+    public List<ItemDto> searchItems(long userId, String text, int from, int size) {
         if (text.isEmpty()) {
             return new ArrayList<>();
         }
-        String query = text.toUpperCase();
-        return itemRepository.search(query).stream()
+        return findItemsInOrder(itemSearch.search(text, from, size));
+    }
+
+    @Override
+    public void streamSearchItems(long userId, String text, Consumer<ItemDto> consumer) {
+        if (text.isEmpty()) {
+            return;
+        }
+        List<Long> ids;
+        int from = 0;
+        do {
+            ids = itemSearch.search(text, from, SEARCH_CHUNK_SIZE);
+            findItemsInOrder(ids).forEach(consumer);
+            from += SEARCH_CHUNK_SIZE;
+        } while (ids.size() == SEARCH_CHUNK_SIZE);
+    }
+
+    @Override
+    public List<String> suggestItems(long userId, String prefix, int size) {
+        if (prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        return itemSuggestIndex.suggest(prefix, size);
+    }
+
+    private List<ItemDto> findItemsInOrder(List<Long> ids) {
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
@@ -159,14 +345,19 @@ public class ItemServiceImpl implements ItemService {
         addComment.setAuthor(userRepository.findById(userId).orElseThrow(() ->
                 new ResourceNotFoundException("User not found")));
         addComment.setCreated(LocalDateTime.now());
-        return CommentMapper.toCommentDto(commentRepository.save(addComment));
+        CommentDto saved = CommentMapper.toCommentDto(commentRepository.save(addComment));
+        itemDetailCache.invalidate(itemId);
+        return saved;
     }
 
     @Override
     public List<CommentDto> findItemComments(long itemId) {
-        List<Comment> commentsList = commentRepository.findByItemId(itemId);
-        return commentsList.stream()
+        return findCommentsByItemIds(List.of(itemId)).getOrDefault(itemId, new ArrayList<>());
+    }
+
+    private Map<Long, List<CommentDto>> findCommentsByItemIds(Collection<Long> itemIds) {
+        return commentRepository.findByItemIdIn(itemIds).stream()
                 .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.groupingBy(CommentDto::getItemId));
     }
 }
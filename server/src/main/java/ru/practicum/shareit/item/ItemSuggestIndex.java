@@ -0,0 +1,201 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie over the names of available items. Every node caches the top names of its subtree, ordered by
+ * the number of items with that name, so a suggestion is a walk down the prefix. The trie holds at most
+ * maxTerms distinct names; new names are ignored once it is full.
+ */
+@Slf4j
+@Component
+public class ItemSuggestIndex {
+    public static final int TOP_K = 10;
+    private static final Comparator<Node> ORDER = Comparator.comparingInt((Node node) -> node.count)
+            .reversed()
+            .thenComparing(node -> node.term);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxTerms;
+    private final Node root = new Node();
+    private final Map<Long, String> itemNames = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int terms;
+
+    public ItemSuggestIndex(JdbcTemplate jdbcTemplate,
+                            @Value("${shareit.item.suggest.max-terms:100000}") int maxTerms) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxTerms = maxTerms;
+    }
+
+    @PostConstruct
+    public void load() {
+        jdbcTemplate.query("SELECT id, name FROM items WHERE available = true",
+                (RowCallbackHandler) rs -> put(rs.getLong("id"), rs.getString("name")));
+    }
+
+    public void put(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            put(item.getId(), item.getName());
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    public void put(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            String previous = itemNames.remove(id);
+            if (previous != null) {
+                change(previous, -1);
+            }
+            if (change(name, 1)) {
+                itemNames.put(id, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String previous = itemNames.remove(id);
+            if (previous != null) {
+                change(previous, -1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<String> suggestions = new ArrayList<>(Math.min(size, node.top.size()));
+            for (int i = 0; i < node.top.size() && i < size; i++) {
+                suggestions.add(node.top.get(i).term);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean change(String name, int delta) {
+        String key = name.toLowerCase(Locale.ROOT);
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                if (delta < 0 || terms >= maxTerms) {
+                    return false;
+                }
+                child = node.addChild(key.charAt(i));
+            }
+            node = child;
+            path.add(node);
+        }
+        if (node.count == 0) {
+            if (delta < 0 || terms >= maxTerms) {
+                return false;
+            }
+            node.term = name;
+            terms++;
+            if (terms == maxTerms) {
+                log.warn("Item suggest index is full with {} names", maxTerms);
+            }
+        }
+        node.count += delta;
+        if (node.count == 0) {
+            node.term = null;
+            terms--;
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            if (i > 0 && current.count == 0 && current.size == 0) {
+                path.get(i - 1).removeChild(key.charAt(i - 1));
+            } else {
+                current.refreshTop();
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private String term;
+        private int count;
+        private List<Node> top = List.of();
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char key) {
+            int index = -Arrays.binarySearch(keys, 0, size, key) - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(2, size * 2));
+                children = Arrays.copyOf(children, keys.length);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            Node child = new Node();
+            keys[index] = key;
+            children[index] = child;
+            size++;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+        }
+
+        private void refreshTop() {
+            List<Node> candidates = new ArrayList<>();
+            if (count > 0) {
+                candidates.add(this);
+            }
+            for (int i = 0; i < size; i++) {
+                candidates.addAll(children[i].top);
+            }
+            candidates.sort(ORDER);
+            top = candidates.size() > TOP_K ? new ArrayList<>(candidates.subList(0, TOP_K)) : candidates;
+        }
+    }
+}
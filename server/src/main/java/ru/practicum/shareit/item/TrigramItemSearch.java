@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item.search.backend", havingValue = "trigram")
+public class TrigramItemSearch implements ItemSearch {
+
+    private final ItemRepository itemRepository;
+    private final boolean trigram;
+
+    public TrigramItemSearch(ItemRepository itemRepository, DataSource dataSource) throws MetaDataAccessException {
+        this.itemRepository = itemRepository;
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (!"PostgreSQL".equals(database)) {
+            log.warn("Trigram item search needs PostgreSQL, falling back to LIKE on {}", database);
+            this.trigram = false;
+            return;
+        }
+        Integer extensions = new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM pg_extension WHERE extname = 'pg_trgm'", Integer.class);
+        this.trigram = extensions != null && extensions > 0;
+        if (!trigram) {
+            log.warn("Trigram item search needs the pg_trgm extension, falling back to LIKE");
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        if (trigram) {
+            return itemRepository.searchIdsByTrigram(text, from, size);
+        }
+        return itemRepository.searchIds(text, from, size);
+    }
+}
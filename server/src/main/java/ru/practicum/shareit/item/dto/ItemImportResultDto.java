@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemImportResultDto {
+    private int read;
+    private int imported;
+    private int rejected;
+    private boolean finished;
+    private List<ItemImportErrorDto> errors;
+}
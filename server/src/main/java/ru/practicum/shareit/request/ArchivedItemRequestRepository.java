@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.request.model.ArchivedItemRequest;
+
+import java.util.List;
+
+public interface ArchivedItemRequestRepository extends JpaRepository<ArchivedItemRequest, Long> {
+
+    List<ArchivedItemRequest> findByRequestorIdOrderByCreatedDescIdDesc(long userId, Pageable pageable);
+}
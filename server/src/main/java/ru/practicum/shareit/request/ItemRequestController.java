@@ -1,12 +1,15 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestAddDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 import static ru.practicum.shareit.utils.BaseConstants.HEADER;
 
 @RestController
@@ -33,14 +36,29 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDto> getRequestsForUser(@RequestHeader(HEADER) long userId) {
-        return itemRequestService.getRequestsForUser(userId);
+    public List<ItemRequestDto> getRequestsForUser(@RequestHeader(HEADER) long userId,
+                                                   @RequestParam(defaultValue = "0") int from,
+                                                   @RequestParam(defaultValue = "10") int size,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME)
+                                                   LocalDateTime cursorCreated,
+                                                   @RequestParam(required = false) Long cursorId) {
+        return itemRequestService.getRequestsForUser(userId, from, size, cursorCreated, cursorId);
+    }
+
+    @GetMapping("/archived")
+    public List<ItemRequestDto> getArchivedRequests(@RequestHeader(HEADER) long userId,
+                                                    @RequestParam(defaultValue = "0") int from,
+                                                    @RequestParam(defaultValue = "10") int size) {
+        return itemRequestService.getArchivedRequests(userId, from, size);
     }
 
     @GetMapping("/all")
     public List<ItemRequestDto> getAllRequestsWithParam(@RequestParam(defaultValue = "0") Long from,
                                                         @RequestParam(defaultValue = "20") Long size,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME)
+                                                        LocalDateTime cursorCreated,
+                                                        @RequestParam(required = false) Long cursorId,
                                                         @RequestHeader(HEADER) long userId) {
-        return itemRequestService.getAllRequestsParametrized(userId, from, size);
+        return itemRequestService.getAllRequestsParametrized(userId, from, size, cursorCreated, cursorId);
     }
 }
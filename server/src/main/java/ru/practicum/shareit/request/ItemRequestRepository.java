@@ -1,23 +1,42 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findByRequestorIdOrderByCreatedDesc(long userId);
 
-    @Query(
-            value = "SELECT * from requests AS r " +
-                    "join items as i on i.request_id = r.id " +
-                    "where r.requester_id = ?1 " +
-                    "or i.owner_id = ?1",
-            nativeQuery = true
-    )
-    Page<ItemRequest> findByRequesterOrOwner(long userId, Pageable pageable);
+    List<ItemRequest> findByRequestorIdOrderByCreatedDescIdDesc(long userId, Pageable pageable);
+
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requestor.id = :userId " +
+            "AND (r.created < :cursorCreated OR (r.created = :cursorCreated AND r.id < :cursorId)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findByRequestorIdAfter(@Param("userId") long userId,
+                                             @Param("cursorCreated") LocalDateTime cursorCreated,
+                                             @Param("cursorId") long cursorId,
+                                             Pageable pageable);
+
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requestor.id = :userId " +
+            "OR EXISTS (SELECT i.id FROM Item i WHERE i.requestId = r.id AND i.owner.id = :userId) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findFeed(@Param("userId") long userId, Pageable pageable);
+
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE (r.requestor.id = :userId " +
+            "OR EXISTS (SELECT i.id FROM Item i WHERE i.requestId = r.id AND i.owner.id = :userId)) " +
+            "AND (r.created < :cursorCreated OR (r.created = :cursorCreated AND r.id < :cursorId)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findFeedAfter(@Param("userId") long userId,
+                                    @Param("cursorCreated") LocalDateTime cursorCreated,
+                                    @Param("cursorId") long cursorId,
+                                    Pageable pageable);
 }
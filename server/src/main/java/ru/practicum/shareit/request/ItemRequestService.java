@@ -3,6 +3,7 @@ package ru.practicum.shareit.request;
 import ru.practicum.shareit.request.dto.ItemRequestAddDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestService {
@@ -10,9 +11,13 @@ public interface ItemRequestService {
 
     ItemRequestDto getRequestById(long requestId, long userId);
 
-    List<ItemRequestDto> getRequestsForUser(long userId);
+    List<ItemRequestDto> getRequestsForUser(long userId, int from, int size,
+                                            LocalDateTime cursorCreated, Long cursorId);
+
+    List<ItemRequestDto> getArchivedRequests(long userId, int from, int size);
 
     List<ItemRequestDto> getAllRequests(long userId);
 
-    List<ItemRequestDto> getAllRequestsParametrized(long userId, long from, long size);
+    List<ItemRequestDto> getAllRequestsParametrized(long userId, long from, long size,
+                                                    LocalDateTime cursorCreated, Long cursorId);
 }
@@ -1,21 +1,23 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemRepository;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestAddDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.RequestItemDto;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -23,16 +25,25 @@ import java.util.stream.Collectors;
 @Service
 public class ItemRequestServiceImpl implements ItemRequestService {
 
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ArchivedItemRequestRepository archivedItemRequestRepository;
+    private final RequestMatcher requestMatcher;
 
     public ItemRequestServiceImpl(UserRepository userRepository,
                                   ItemRepository itemRepository,
-                                  ItemRequestRepository itemRequestRepository) {
+                                  ItemRequestRepository itemRequestRepository,
+                                  ArchivedItemRequestRepository archivedItemRequestRepository,
+                                  RequestMatcher requestMatcher) {
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.archivedItemRequestRepository = archivedItemRequestRepository;
+        this.requestMatcher = requestMatcher;
     }
 
     @Override
@@ -40,7 +51,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest itemRequest = ItemRequestMapper.fromItemRequestDto(itemRequestAddDto);
         itemRequest.setRequestor(userRepository.findById(userId).orElseThrow(() ->
                 new ResourceNotFoundException("User not found")));
-        return ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
+        ItemRequest saved = itemRequestRepository.save(itemRequest);
+        requestMatcher.requestCreated(saved);
+        return ItemRequestMapper.toItemRequestDto(saved);
     }
 
     @Override
@@ -49,33 +62,43 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 new ResourceNotFoundException("User not found"));
         ItemRequest request = itemRequestRepository.findById(requestId).orElseThrow(() ->
                 new ResourceNotFoundException("Request not found"));
-        List<Item> items = itemRepository.findByRequestId(requestId);
-        ItemRequestDto itemRequestDto = ItemRequestMapper.toItemRequestDto(request);
-        itemRequestDto.setItems(items);
-        return itemRequestDto;
+        List<ItemRequestDto> requestDtoList = toItemRequestDtos(List.of(request));
+        if (request.getRequestor().getId() == userId) {
+            setSuggestions(requestDtoList);
+        }
+        return requestDtoList.get(0);
     }
 
     @Override
-    public List<ItemRequestDto> getRequestsForUser(long userId) {
+    public List<ItemRequestDto> getRequestsForUser(long userId, int from, int size,
+                                                   LocalDateTime cursorCreated, Long cursorId) {
+        validatePage(from, size);
         User requester = userRepository.findById(userId).orElseThrow(() ->
                 new ResourceNotFoundException("User not found"));
-        List<ItemRequest> requestList = itemRequestRepository.findByRequestorIdOrderByCreatedDesc(userId);
-        List<Long> requestIds = requestList.stream()
-                .map(ItemRequest::getId)
-                .collect(Collectors.toList());
-        List<Item> items = itemRepository.findByRequestIdIn(requestIds);
-        List<ItemRequestDto> requestDtoList = requestList.stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
-        for (ItemRequestDto requestDto : requestDtoList) {
-            List<Item> requestItems = items.stream()
-                    .filter(item -> item.getRequestId() == requestDto.getId())
-                    .collect(Collectors.toList());
-            requestDto.setItems(requestItems);
+        List<ItemRequest> requestList;
+        if (cursorCreated != null && cursorId != null) {
+            requestList = itemRequestRepository.findByRequestorIdAfter(userId, cursorCreated, cursorId,
+                    PageRequest.of(0, size));
+        } else {
+            requestList = itemRequestRepository.findByRequestorIdOrderByCreatedDescIdDesc(userId,
+                    PageRequest.of(from / size, size));
         }
+        List<ItemRequestDto> requestDtoList = toItemRequestDtos(requestList);
+        setSuggestions(requestDtoList);
         return requestDtoList;
     }
 
+    @Override
+    public List<ItemRequestDto> getArchivedRequests(long userId, int from, int size) {
+        validatePage(from, size);
+        User requester = userRepository.findById(userId).orElseThrow(() ->
+                new ResourceNotFoundException("User not found"));
+        return attachItems(archivedItemRequestRepository.findByRequestorIdOrderByCreatedDescIdDesc(userId,
+                        PageRequest.of(from / size, size)).stream()
+                .map(ItemRequestMapper::toItemRequestDto)
+                .collect(Collectors.toList()));
+    }
+
     @Override
     public List<ItemRequestDto> getAllRequests(long userId) {
         User requester = userRepository.findById(userId).orElseThrow(() ->
@@ -84,45 +107,71 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         if (!isRequester(requestList, userId)) {
             return Collections.emptyList();
         }
-        List<Long> requestIds = requestList.stream()
-                .map(ItemRequest::getId)
-                .collect(Collectors.toList());
-        Map<Long, List<Item>> itemsMap = itemRepository.findByRequestIdIn(requestIds).stream()
-                .collect(Collectors.groupingBy(Item::getRequestId));
-        List<ItemRequestDto> requestDtoList = requestList.stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
-        for (ItemRequestDto requestDto : requestDtoList) {
-            List<Item> requestItems = itemsMap.getOrDefault(requestDto.getId(), new ArrayList<>());
-            requestDto.setItems(requestItems);
-        }
-        return requestDtoList;
+        return toItemRequestDtos(requestList);
     }
 
     @Override
-    public List<ItemRequestDto> getAllRequestsParametrized(long userId, long from, long size) {
+    public List<ItemRequestDto> getAllRequestsParametrized(long userId, long from, long size,
+                                                           LocalDateTime cursorCreated, Long cursorId) {
         User requester = userRepository.findById(userId).orElseThrow(() ->
                 new ResourceNotFoundException("User not found"));
-        PageRequest pageable = PageRequest.of((int) Math.floor(from / size), (int) size, Sort.by("created").descending());
-        Page<ItemRequest> requestPage = itemRequestRepository.findByRequesterOrOwner(userId, pageable);
-        if (isRequester(requestPage.getContent(), userId)) {
+        List<ItemRequest> requestList;
+        if (cursorCreated != null && cursorId != null) {
+            requestList = itemRequestRepository.findFeedAfter(userId, cursorCreated, cursorId,
+                    PageRequest.of(0, (int) size));
+        } else {
+            requestList = itemRequestRepository.findFeed(userId,
+                    PageRequest.of((int) Math.floor(from / size), (int) size));
+        }
+        if (isRequester(requestList, userId)) {
             return Collections.emptyList();
         }
-        List<ItemRequestDto> requestDtoList = requestPage.stream()
+        return toItemRequestDtos(requestList);
+    }
+
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requestList) {
+        return attachItems(requestList.stream()
                 .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
-        List<Long> requestIds = requestDtoList.stream()
+                .collect(Collectors.toList()));
+    }
+
+    private List<ItemRequestDto> attachItems(List<ItemRequestDto> requestDtoList) {
+        Map<Long, List<RequestItemDto>> itemsMap = findRequestItems(requestDtoList.stream()
                 .map(ItemRequestDto::getId)
-                .collect(Collectors.toList());
-        Map<Long, List<Item>> itemsMap = itemRepository.findByRequestIdIn(requestIds).stream()
-                .collect(Collectors.groupingBy(Item::getRequestId));
+                .collect(Collectors.toList()));
         for (ItemRequestDto requestDto : requestDtoList) {
-            List<Item> requestItems = itemsMap.getOrDefault(requestDto.getId(), new ArrayList<>());
-            requestDto.setItems(requestItems);
+            requestDto.setItems(itemsMap.getOrDefault(requestDto.getId(), new ArrayList<>()));
         }
         return requestDtoList;
     }
 
+    private Map<Long, List<RequestItemDto>> findRequestItems(List<Long> requestIds) {
+        Map<Long, List<RequestItemDto>> itemsMap = new HashMap<>();
+        for (int from = 0; from < requestIds.size(); from += LOAD_BATCH_SIZE) {
+            List<Long> batch = requestIds.subList(from, Math.min(from + LOAD_BATCH_SIZE, requestIds.size()));
+            for (RequestItemDto item : itemRepository.findRequestItems(batch)) {
+                itemsMap.computeIfAbsent(item.getRequestId(), key -> new ArrayList<>()).add(item);
+            }
+        }
+        return itemsMap;
+    }
+
+    private void setSuggestions(List<ItemRequestDto> requestDtoList) {
+        Map<Long, List<RequestSuggestionDto>> suggestions = requestMatcher.findSuggestions(requestDtoList.stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList()));
+        for (ItemRequestDto requestDto : requestDtoList) {
+            requestDto.setSuggestions(suggestions.getOrDefault(requestDto.getId(), new ArrayList<>()));
+        }
+    }
+
+    private void validatePage(int from, int size) {
+        if (from < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("From must not be negative and size must be between 1 and " +
+                    MAX_PAGE_SIZE);
+        }
+    }
+
     private boolean isRequester(List<ItemRequest> requestList, long userId) {
         for (ItemRequest request : requestList) {
             if (request.getRequestor().getId() == userId) {
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves requests older than maxAgeDays, or older than fulfilledAgeDays once an item answers them, from
+ * requests to requests_archive. Each batch of batchSize rows is copied and deleted in its own transaction,
+ * so the hot table stays small without long locks. Items keep the request id, which the archive keeps too.
+ */
+@Slf4j
+@Component
+public class RequestArchiveJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RequestMatcher requestMatcher;
+    private final long maxAgeDays;
+    private final long fulfilledAgeDays;
+    private final int batchSize;
+    private final Timer runTimer;
+    private final Counter archivedRows;
+
+    public RequestArchiveJob(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             RequestMatcher requestMatcher,
+                             MeterRegistry meterRegistry,
+                             @Value("${shareit.request.archive.max-age-days:90}") long maxAgeDays,
+                             @Value("${shareit.request.archive.fulfilled-age-days:7}") long fulfilledAgeDays,
+                             @Value("${shareit.request.archive.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.requestMatcher = requestMatcher;
+        this.maxAgeDays = maxAgeDays;
+        this.fulfilledAgeDays = fulfilledAgeDays;
+        this.batchSize = batchSize;
+        this.runTimer = Timer.builder("shareit.request.archive.run")
+                .description("Time spent archiving item requests")
+                .register(meterRegistry);
+        this.archivedRows = Counter.builder("shareit.request.archive.rows")
+                .description("Item requests moved to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.request.archive.interval-ms:3600000}",
+            initialDelayString = "${shareit.request.archive.interval-ms:3600000}")
+    public void archiveRequests() {
+        runTimer.record(() -> archiveRequests(LocalDateTime.now()));
+    }
+
+    public int archiveRequests(LocalDateTime now) {
+        Timestamp expired = Timestamp.valueOf(now.minusDays(maxAgeDays));
+        Timestamp fulfilled = Timestamp.valueOf(now.minusDays(fulfilledAgeDays));
+        int archived = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList("SELECT r.id FROM requests AS r WHERE r.created < ? " +
+                            "OR (r.created < ? AND EXISTS (SELECT 1 FROM items AS i WHERE i.request_id = r.id)) " +
+                            "ORDER BY r.id LIMIT ?",
+                    Long.class, expired, fulfilled, batchSize);
+            if (!ids.isEmpty()) {
+                archive(ids, now);
+                archived += ids.size();
+            }
+        } while (ids.size() == batchSize);
+        log.info("Archived {} item requests", archived);
+        return archived;
+    }
+
+    private void archive(List<Long> ids, LocalDateTime now) {
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] copyArgs = new Object[ids.size() + 1];
+        copyArgs[0] = Timestamp.valueOf(now);
+        for (int i = 0; i < ids.size(); i++) {
+            copyArgs[i + 1] = ids.get(i);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO requests_archive (id, description, requester_id, created, archived) " +
+                    "SELECT id, description, requester_id, created, ? FROM requests WHERE id IN (" + in + ")", copyArgs);
+            jdbcTemplate.update("DELETE FROM requests WHERE id IN (" + in + ")", ids.toArray());
+        });
+        archivedRows.increment(ids.size());
+        requestMatcher.requestsArchived(ids);
+    }
+}
@@ -0,0 +1,308 @@
+package ru.practicum.shareit.request;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearch;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Suggests available items for item requests. Open requests (those no item answers yet) are indexed by the
+ * words of their description. A request scores an item by the request words the item text contains, each
+ * weighted by how few items {@link ItemSearch} finds for it (words matching WORD_CANDIDATES items or more
+ * count for nothing); a new request is scored against the items found for its words, and a new item against
+ * the open requests sharing a word with it. Matching runs on a single worker thread after the calling
+ * transaction commits, so writers pay nothing for it and the index needs no locking; only the best
+ * maxSuggestions per request are kept.
+ */
+@Slf4j
+@Component
+public class RequestMatcher {
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int WORD_CANDIDATES = 100;
+    private static final Comparator<Map.Entry<Long, Double>> SCORE_ORDER =
+            Comparator.comparing(Map.Entry<Long, Double>::getValue).reversed()
+                    .thenComparing(Map.Entry::getKey);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemRepository itemRepository;
+    private final ItemSearch itemSearch;
+    private final int maxSuggestions;
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("request-matcher-"));
+    private final Map<String, Set<Long>> requestsByWord = new HashMap<>();
+    private final Map<Long, OpenRequest> openRequests = new HashMap<>();
+
+    public RequestMatcher(JdbcTemplate jdbcTemplate,
+                          ItemRepository itemRepository,
+                          ItemSearch itemSearch,
+                          @Value("${shareit.request.suggestions.max:5}") int maxSuggestions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemRepository = itemRepository;
+        this.itemSearch = itemSearch;
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    @PostConstruct
+    public void load() {
+        jdbcTemplate.query("SELECT r.id, r.requester_id, r.description FROM requests AS r " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM items AS i WHERE i.request_id = r.id)",
+                (RowCallbackHandler) rs -> open(rs.getLong("id"), rs.getLong("requester_id"),
+                        rs.getString("description")));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void requestCreated(ItemRequest request) {
+        long requestId = request.getId();
+        long requesterId = request.getRequestor().getId();
+        String description = request.getDescription();
+        submit(() -> {
+            open(requestId, requesterId, description);
+            matchRequest(requestId, requesterId, description);
+        });
+    }
+
+    public void itemsAdded(List<Item> items) {
+        List<AddedItem> added = items.stream()
+                .map(item -> new AddedItem(item.getId(), item.getOwner().getId(), item.getRequestId(),
+                        Boolean.TRUE.equals(item.getAvailable()), item.getName() + " " + item.getDescription()))
+                .collect(Collectors.toList());
+        submit(() -> {
+            for (AddedItem item : added) {
+                if (item.requestId != null) {
+                    close(item.requestId);
+                }
+            }
+            for (AddedItem item : added) {
+                if (item.available) {
+                    matchItem(item);
+                }
+            }
+        });
+    }
+
+    public void requestsArchived(List<Long> requestIds) {
+        List<Long> archived = new ArrayList<>(requestIds);
+        submit(() -> archived.forEach(this::close));
+    }
+
+    public Map<Long, List<RequestSuggestionDto>> findSuggestions(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<RequestSuggestionDto>> suggestions = new HashMap<>();
+        jdbcTemplate.query("SELECT s.request_id, s.score, i.id, i.name, i.description " +
+                        "FROM request_suggestions AS s JOIN items AS i ON i.id = s.item_id " +
+                        "WHERE i.available = true AND s.request_id IN (" +
+                        String.join(", ", Collections.nCopies(requestIds.size(), "?")) + ") " +
+                        "ORDER BY s.request_id, s.score DESC, i.id",
+                (RowCallbackHandler) rs -> suggestions.computeIfAbsent(rs.getLong("request_id"),
+                        key -> new ArrayList<>()).add(new RequestSuggestionDto(rs.getLong("id"),
+                        rs.getString("name"), rs.getString("description"), rs.getDouble("score"))),
+                requestIds.toArray());
+        return suggestions;
+    }
+
+    private void submit(Runnable task) {
+        Runnable logged = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Request matching failed", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(logged);
+                }
+            });
+        } else {
+            executor.execute(logged);
+        }
+    }
+
+    private void matchRequest(long requestId, long requesterId, String description) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (String word : words(description)) {
+            List<Long> ids = itemSearch.search(word, 0, WORD_CANDIDATES);
+            double weight = weight(ids);
+            if (weight == 0) {
+                continue;
+            }
+            for (Long id : ids) {
+                scores.merge(id, weight, Double::sum);
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(SCORE_ORDER);
+        // Items are loaded in ranked chunks and filtered before the limit, so unavailable items and the
+        // requester's own items at the top of the ranking cannot crowd out the ones further down.
+        int chunkSize = maxSuggestions * 2;
+        List<Object[]> rows = new ArrayList<>(maxSuggestions);
+        for (int from = 0; from < ranked.size() && rows.size() < maxSuggestions; from += chunkSize) {
+            List<Map.Entry<Long, Double>> chunk = ranked.subList(from, Math.min(ranked.size(), from + chunkSize));
+            Set<Long> candidates = itemRepository.findAllById(chunk.stream()
+                            .map(Map.Entry::getKey)
+                            .collect(Collectors.toList())).stream()
+                    .filter(item -> Boolean.TRUE.equals(item.getAvailable()))
+                    .filter(item -> item.getOwner().getId() != requesterId)
+                    .map(Item::getId)
+                    .collect(Collectors.toSet());
+            for (Map.Entry<Long, Double> entry : chunk) {
+                if (candidates.contains(entry.getKey()) && rows.size() < maxSuggestions) {
+                    rows.add(new Object[]{requestId, entry.getKey(), entry.getValue()});
+                }
+            }
+        }
+        save(rows);
+    }
+
+    private void matchItem(AddedItem item) {
+        Set<Long> candidates = new HashSet<>();
+        for (String word : words(item.text)) {
+            candidates.addAll(requestsByWord.getOrDefault(word, Collections.emptySet()));
+        }
+        String text = item.text.toLowerCase(Locale.ROOT);
+        Map<String, Double> weights = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Long requestId : candidates) {
+            OpenRequest request = openRequests.get(requestId);
+            if (request.requesterId == item.ownerId) {
+                continue;
+            }
+            double score = 0;
+            for (String word : request.words) {
+                if (text.contains(word)) {
+                    score += weights.computeIfAbsent(word, key -> weight(itemSearch.search(key, 0, WORD_CANDIDATES)));
+                }
+            }
+            if (score > 0) {
+                rows.add(new Object[]{requestId, item.id, score});
+            }
+        }
+        save(rows);
+    }
+
+    private static double weight(List<Long> matchingItemIds) {
+        if (matchingItemIds.isEmpty() || matchingItemIds.size() >= WORD_CANDIDATES) {
+            return 0;
+        }
+        return Math.log(1 + (double) WORD_CANDIDATES / matchingItemIds.size());
+    }
+
+    private void save(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM request_suggestions WHERE request_id = ? AND item_id = ?",
+                rows.stream().map(row -> new Object[]{row[0], row[1]}).collect(Collectors.toList()));
+        // A request archived after it was matched is skipped instead of failing the whole batch on its key.
+        jdbcTemplate.batchUpdate("INSERT INTO request_suggestions (request_id, item_id, score) SELECT ?, ?, ? " +
+                        "WHERE EXISTS (SELECT 1 FROM requests WHERE id = ?)",
+                rows.stream().map(row -> new Object[]{row[0], row[1], row[2], row[0]}).collect(Collectors.toList()));
+        Set<Object> requestIds = rows.stream().map(row -> row[0]).collect(Collectors.toSet());
+        jdbcTemplate.batchUpdate("DELETE FROM request_suggestions WHERE request_id = ? AND item_id NOT IN " +
+                        "(SELECT item_id FROM request_suggestions WHERE request_id = ? " +
+                        "ORDER BY score DESC, item_id LIMIT ?)",
+                requestIds.stream()
+                        .map(requestId -> new Object[]{requestId, requestId, maxSuggestions})
+                        .collect(Collectors.toList()));
+    }
+
+    private void open(long requestId, long requesterId, String description) {
+        Set<String> words = words(description);
+        openRequests.put(requestId, new OpenRequest(requesterId, words));
+        for (String word : words) {
+            requestsByWord.computeIfAbsent(word, key -> new HashSet<>()).add(requestId);
+        }
+    }
+
+    private void close(long requestId) {
+        OpenRequest request = openRequests.remove(requestId);
+        if (request == null) {
+            return;
+        }
+        for (String word : request.words) {
+            Set<Long> requestIds = requestsByWord.get(word);
+            requestIds.remove(requestId);
+            if (requestIds.isEmpty()) {
+                requestsByWord.remove(word);
+            }
+        }
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int wordStart = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && wordStart < 0) {
+                wordStart = i;
+            } else if (!wordChar && wordStart >= 0) {
+                if (i - wordStart >= MIN_WORD_LENGTH) {
+                    words.add(lower.substring(wordStart, i));
+                }
+                wordStart = -1;
+            }
+        }
+        return words;
+    }
+
+    private static final class OpenRequest {
+        private final long requesterId;
+        private final Set<String> words;
+
+        private OpenRequest(long requesterId, Set<String> words) {
+            this.requesterId = requesterId;
+            this.words = words;
+        }
+    }
+
+    private static final class AddedItem {
+        private final long id;
+        private final long ownerId;
+        private final Long requestId;
+        private final boolean available;
+        private final String text;
+
+        private AddedItem(long id, long ownerId, Long requestId, boolean available, String text) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.requestId = requestId;
+            this.available = available;
+            this.text = text;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package ru.practicum.shareit.request.dto;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,5 +15,6 @@ public class ItemRequestDto {
     private String description;
     private Long requesterId;
     private LocalDateTime created;
-    private List<Item> items;
+    private List<RequestItemDto> items;
+    private List<RequestSuggestionDto> suggestions;
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.dto;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.request.model.ArchivedItemRequest;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.time.LocalDateTime;
@@ -15,6 +16,18 @@ public class ItemRequestMapper {
                 .requesterId(itemRequest.getRequestor().getId())
                 .created(itemRequest.getCreated())
                 .items(null)
+                .suggestions(null)
+                .build();
+    }
+
+    public ItemRequestDto toItemRequestDto(ArchivedItemRequest itemRequest) {
+        return ItemRequestDto.builder()
+                .id(itemRequest.getId())
+                .description(itemRequest.getDescription())
+                .requesterId(itemRequest.getRequestor().getId())
+                .created(itemRequest.getCreated())
+                .items(null)
+                .suggestions(null)
                 .build();
     }
 
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.*;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "requests_archive")
+@Builder
+public class ArchivedItemRequest {
+    @Id
+    private long id;
+    private String description;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @JoinColumn(name = "requester_id")
+    private User requestor;
+    private LocalDateTime created;
+    private LocalDateTime archived;
+}
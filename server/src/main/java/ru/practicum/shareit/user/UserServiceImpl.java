@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.InternalErrorException;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
+import ru.practicum.shareit.item.ItemDetailCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -15,10 +16,12 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ItemDetailCache itemDetailCache;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, ItemDetailCache itemDetailCache) {
         this.userRepository = userRepository;
+        this.itemDetailCache = itemDetailCache;
     }
 
     public List<UserDto> getAllUsers() {
@@ -48,7 +51,9 @@ public class UserServiceImpl implements UserService {
         if (newUser.getEmail() != null) {
             user.setEmail(newUser.getEmail());
         }
-        return UserMapper.toUserDto(userRepository.save(user));
+        UserDto saved = UserMapper.toUserDto(userRepository.save(user));
+        itemDetailCache.invalidateUser(userId);
+        return saved;
     }
 
     public UserDto createUser(UserDto userDto) {
@@ -58,5 +63,6 @@ public class UserServiceImpl implements UserService {
 
     public void deleteUserById(long id) {
         userRepository.deleteById(id);
+        itemDetailCache.invalidateUser(id);
     }
 }
@@ -3,4 +3,6 @@ package ru.practicum.shareit.utils;
 public class BaseConstants {
 
     public static final String HEADER = "X-Sharer-User-Id";
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 }
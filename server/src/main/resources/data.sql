@@ -3,9 +3,14 @@ DELETE FROM requests;
 DELETE FROM items;
 DELETE FROM bookings;
 DELETE FROM comments;
+DELETE FROM booking_events;
+UPDATE booking_event_relay SET last_seq = 0;
+DELETE FROM request_suggestions;
+DELETE FROM requests_archive;
 
-ALTER TABLE users ALTER COLUMN id RESTART WITH 1;
-ALTER TABLE requests ALTER COLUMN id RESTART WITH 1;
-ALTER TABLE items ALTER COLUMN id RESTART WITH 1;
-ALTER TABLE bookings ALTER COLUMN id RESTART WITH 1;
-ALTER TABLE comments ALTER COLUMN id RESTART WITH 1;
\ No newline at end of file
+ALTER SEQUENCE users_seq RESTART WITH 1;
+ALTER SEQUENCE requests_seq RESTART WITH 1;
+ALTER SEQUENCE items_seq RESTART WITH 1;
+ALTER SEQUENCE bookings_seq RESTART WITH 1;
+ALTER SEQUENCE comments_seq RESTART WITH 1;
+ALTER SEQUENCE booking_events_seq RESTART WITH 1;
\ No newline at end of file
@@ -0,0 +1,33 @@
+-- pg_trgm backs the trigram item search. Roles that may not create it get the LIKE search instead, unless
+-- an administrator installs it; the GIN indexes are only created once it is there.
+DO '
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION WHEN insufficient_privilege OR undefined_file THEN
+    RAISE NOTICE ''pg_trgm is not installed, trigram item search falls back to LIKE'';
+END';
+
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+        CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING GIN (name gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING GIN (description gin_trgm_ops);
+    END IF;
+END';
+
+-- Databases created before the id sequences existed still have identity columns.
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+ALTER TABLE booking_events ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE booking_events ALTER COLUMN id SET DEFAULT nextval('booking_events_seq');
+
+-- Items keep the id of a request after it moves to requests_archive.
+ALTER TABLE items DROP CONSTRAINT IF EXISTS items_request_id_fkey;
@@ -1,6 +1,18 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS booking_events_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id    BIGINT DEFAULT nextval('users_seq')     NOT NULL,
     name  VARCHAR(255)                            NOT NULL,
     email VARCHAR(512)                            NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id),
@@ -9,7 +21,7 @@ CREATE TABLE IF NOT EXISTS users
 
 CREATE TABLE IF NOT EXISTS requests
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id           BIGINT DEFAULT nextval('requests_seq')  NOT NULL,
     description  VARCHAR(250)                            NOT NULL,
     requester_id BIGINT                                  NOT NULL,
     created      TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
@@ -20,7 +32,7 @@ CREATE TABLE IF NOT EXISTS requests
 
 CREATE TABLE IF NOT EXISTS items
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id          BIGINT DEFAULT nextval('items_seq')     NOT NULL,
     name        VARCHAR(200)                            NOT NULL,
     description VARCHAR(250)                            NOT NULL,
     available   BOOLEAN,
@@ -28,19 +40,19 @@ CREATE TABLE IF NOT EXISTS items
     request_id  BIGINT,
     FOREIGN KEY (owner_id)
         REFERENCES users (id) ON DELETE CASCADE,
-    CONSTRAINT pk_item PRIMARY KEY (id),
-    FOREIGN KEY (request_id)
-        REFERENCES requests (id) ON DELETE CASCADE
+    CONSTRAINT pk_item PRIMARY KEY (id)
 );
 
 CREATE TABLE IF NOT EXISTS bookings
 (
-    id             BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id             BIGINT DEFAULT nextval('bookings_seq')  NOT NULL,
     start_date     TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
     end_date       TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
     item_id        BIGINT                                  NOT NULL,
     booker_id      BIGINT                                  NOT NULL,
     booking_status VARCHAR,
+    version        BIGINT  DEFAULT 0                       NOT NULL,
+    phase          VARCHAR(16) DEFAULT 'FUTURE'            NOT NULL,
     FOREIGN KEY (item_id)
         REFERENCES items (id) ON DELETE CASCADE,
     FOREIGN KEY (booker_id)
@@ -48,9 +60,16 @@ CREATE TABLE IF NOT EXISTS bookings
     CONSTRAINT pk_booking PRIMARY KEY (id)
 );
 
+-- Bookings tables created before optimistic locking have no version column.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- Bookings tables created before the lifecycle phase have no phase column; the backfill at the end of this
+-- script moves their rows out of the default FUTURE phase.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(16) DEFAULT 'FUTURE' NOT NULL;
+
 CREATE TABLE IF NOT EXISTS comments
 (
-    id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id        BIGINT DEFAULT nextval('comments_seq')  NOT NULL,
     text      VARCHAR(500)                            NOT NULL,
     item_id   BIGINT                                  NOT NULL,
     author_id BIGINT                                  NOT NULL,
@@ -60,4 +79,87 @@ CREATE TABLE IF NOT EXISTS comments
     FOREIGN KEY (author_id)
         REFERENCES users (id) ON DELETE CASCADE,
     CONSTRAINT pk_comment PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS booking_events
+(
+    id         BIGINT DEFAULT nextval('booking_events_seq') NOT NULL,
+    booking_id BIGINT                                  NOT NULL,
+    item_id    BIGINT                                  NOT NULL,
+    booker_id  BIGINT                                  NOT NULL,
+    owner_id   BIGINT                                  NOT NULL,
+    event_type VARCHAR(16)                             NOT NULL,
+    created    TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    publish_seq BIGINT,
+    CONSTRAINT pk_booking_event PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS booking_event_relay
+(
+    id       INTEGER                                 NOT NULL,
+    last_seq BIGINT                                  NOT NULL,
+    CONSTRAINT pk_booking_event_relay PRIMARY KEY (id)
+);
+
+INSERT INTO booking_event_relay (id, last_seq)
+SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM booking_event_relay);
+
+CREATE TABLE IF NOT EXISTS requests_archive
+(
+    id           BIGINT                                  NOT NULL,
+    description  VARCHAR(250)                            NOT NULL,
+    requester_id BIGINT                                  NOT NULL,
+    created      TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    archived     TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    FOREIGN KEY (requester_id)
+        REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT pk_request_archive PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS request_suggestions
+(
+    request_id BIGINT                                  NOT NULL,
+    item_id    BIGINT                                  NOT NULL,
+    score      DOUBLE PRECISION                        NOT NULL,
+    FOREIGN KEY (request_id)
+        REFERENCES requests (id) ON DELETE CASCADE,
+    FOREIGN KEY (item_id)
+        REFERENCES items (id) ON DELETE CASCADE,
+    CONSTRAINT pk_request_suggestion PRIMARY KEY (request_id, item_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created);
+
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created);
+
+CREATE INDEX IF NOT EXISTS idx_requests_archive_requester_created ON requests_archive (requester_id, created);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_start ON bookings (booker_id, phase, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_phase_start ON bookings (item_id, phase, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_start ON bookings (phase, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_end ON bookings (phase, end_date);
+
+CREATE INDEX IF NOT EXISTS idx_booking_events_created ON booking_events (created);
+
+CREATE INDEX IF NOT EXISTS idx_booking_events_publish_seq ON booking_events (publish_seq, id);
+
+CREATE INDEX IF NOT EXISTS idx_booking_events_booker_publish_seq ON booking_events (booker_id, publish_seq);
+
+CREATE INDEX IF NOT EXISTS idx_booking_events_owner_publish_seq ON booking_events (owner_id, publish_seq);
+
+-- Backfills the phase of rows added before the column existed; later runs only touch rows the lifecycle
+-- scheduler has not advanced yet.
+UPDATE bookings SET phase = 'PAST' WHERE phase IN ('FUTURE', 'STARTING', 'CURRENT') AND end_date < LOCALTIMESTAMP;
+
+UPDATE bookings SET phase = 'CURRENT' WHERE phase IN ('FUTURE', 'STARTING') AND start_date < LOCALTIMESTAMP;
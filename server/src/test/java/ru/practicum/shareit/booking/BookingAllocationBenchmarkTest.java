@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookerDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes allocated per booking listing page of 20 rows: loading the entity graph and mapping it with
+ * builders (before) versus the column projection mapped with constructors (after).
+ * Run with {@code mvn -pl server test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingAllocationBenchmarkTest {
+
+    private static final int BOOKINGS = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final int ITERATIONS = 500;
+
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void projectionAllocatesLessThanEntityGraphTest() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'Owner', 'owner@user.com')");
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (2, 'Booker', 'booker@user.com')");
+        addItemsAndBookings();
+        BookingQuery query = BookingQuery.builder()
+                .role(BookingRole.BOOKER)
+                .userId(2)
+                .state(BookingTimeState.ALL)
+                .from(0)
+                .size(PAGE_SIZE)
+                .build();
+        long entityBytes = allocatedBytesPerPage(this::findEntityPage);
+        long projectionBytes = allocatedBytesPerPage(() -> bookingRepository.findBookings(query).stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList()));
+        log.info("Allocated per page: entity graph {} bytes, projection {} bytes", entityBytes, projectionBytes);
+        assertTrue(projectionBytes < entityBytes,
+                "Projection allocates " + projectionBytes + " bytes, entity graph " + entityBytes);
+    }
+
+    private List<BookingDto> findEntityPage() {
+        return entityManager.createQuery("select b from Booking b " +
+                        "join fetch b.item i " +
+                        "join fetch i.owner " +
+                        "join fetch b.booker " +
+                        "where b.booker.id = :bookerId " +
+                        "order by b.start desc, b.id desc", Booking.class)
+                .setParameter("bookerId", 2L)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList().stream()
+                .map(booking -> BookingDto.builder()
+                        .id(booking.getId())
+                        .start(booking.getStart())
+                        .end(booking.getEnd())
+                        .item(BookingItemDto.builder()
+                                .id(booking.getItem().getId())
+                                .name(booking.getItem().getName())
+                                .build())
+                        .booker(BookerDto.builder()
+                                .id(booking.getBooker().getId())
+                                .name(booking.getBooker().getName())
+                                .build())
+                        .bookerId(booking.getBooker().getId())
+                        .status(booking.getStatus())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private long allocatedBytesPerPage(Supplier<List<BookingDto>> page) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(PAGE_SIZE, page.get().size());
+        }
+        long threadId = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            page.get();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - start) / ITERATIONS;
+    }
+
+    private void addItemsAndBookings() {
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(new Object[]{"Item " + i, "Description " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, true, 1)",
+                items);
+        List<Long> itemIds = jdbcTemplate.queryForList("SELECT id FROM items ORDER BY id LIMIT 100", Long.class);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(new Object[]{Timestamp.valueOf(start.plusHours(i)), Timestamp.valueOf(start.plusHours(i + 1)),
+                    itemIds.get(i % 100)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, booking_status) " +
+                "VALUES (?, ?, ?, 2, 'WAITING')", bookings);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingAddDto;
+import ru.practicum.shareit.item.ItemDetailCache;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.utils.BaseConstants.HEADER;
+
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingControllerTest {
+
+    private final ItemService itemService;
+    private final UserService userService;
+    private final BookingService bookingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final MockMvc mockMvc;
+
+    @SpyBean
+    private ItemDetailCache itemDetailCache;
+
+    @Test
+    void approveBookingWithStaleVersionReturnsConflictTest() throws Exception {
+        userService.createUser(UserDto.builder().name("Owner").email("owner@user.com").build());
+        userService.createUser(UserDto.builder().name("Booker").email("booker@user.com").build());
+        itemService.addItem(ItemDto.builder().name("Drill").description("Cordless drill").available(true).build(), 1);
+        bookingService.addBooking(BookingAddDto.builder()
+                .itemId(1)
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .build(), 2);
+        // Another approval commits between the read and the write of this one.
+        doAnswer(invocation -> jdbcTemplate.update("UPDATE bookings SET booking_status = 'REJECTED', " +
+                "version = version + 1 WHERE id = 1"))
+                .when(itemDetailCache).invalidate(anyLong());
+
+        mockMvc.perform(patch("/bookings/1")
+                        .header(HEADER, 1)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Resource was modified by another request"));
+        assertEquals(BookingStatus.WAITING, bookingService.getBookingById(1, 1).getStatus());
+    }
+}
@@ -1,13 +1,21 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.dto.BookingAddDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemService;
@@ -20,7 +28,7 @@ import ru.practicum.shareit.user.model.User;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static ru.practicum.shareit.booking.BookingTimeState.*;
 
 @SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -32,6 +40,12 @@ public class BookingServiceTest {
     private final ItemService itemService;
     private final UserService userService;
     private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final BookingLifecycleScheduler lifecycleScheduler;
+    private final BookingEventRelay eventRelay;
+    private final BookingEventRetentionJob eventRetentionJob;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
 
     @Test
     void getBookingByIdSuccessTest() {
@@ -517,6 +531,282 @@ public class BookingServiceTest {
         }
     }
 
+    @Test
+    void addBookingOverlappingPeriodShouldReturnErrorTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        User userThree = getUser(3);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        userService.createUser(UserMapper.toUserDto(userThree));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        BookingAddDto bookingAddDto = getAddBookingDto(item.getId());
+        bookingAddDto.setStart(LocalDateTime.now().plusMinutes(1));
+        bookingAddDto.setEnd(LocalDateTime.now().plusMinutes(10));
+        bookingService.addBooking(bookingAddDto, userTwo.getId());
+        BookingAddDto overlapping = getAddBookingDto(item.getId());
+        overlapping.setStart(bookingAddDto.getStart().plusMinutes(5));
+        overlapping.setEnd(bookingAddDto.getEnd().plusMinutes(5));
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> bookingService.addBooking(overlapping, userThree.getId()));
+        assertTrue(e.getMessage().startsWith("Item is already booked for this time"));
+    }
+
+    @Test
+    void addBookingAfterRejectedOverlappingBookingTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        User userThree = getUser(3);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        userService.createUser(UserMapper.toUserDto(userThree));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        BookingAddDto bookingAddDto = getAddBookingDto(item.getId());
+        bookingAddDto.setStart(LocalDateTime.now().plusMinutes(1));
+        bookingAddDto.setEnd(LocalDateTime.now().plusMinutes(10));
+        bookingService.addBooking(bookingAddDto, userTwo.getId());
+        bookingService.approveBooking(1, 1, false);
+        BookingDto bookingDto = bookingService.addBooking(bookingAddDto, userThree.getId());
+        assertEquals(userThree.getId(), bookingDto.getBooker().getId());
+    }
+
+    @Test
+    void getUserBookingWithCursorTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        for (int i = 1; i <= 3; i++) {
+            BookingAddDto bookingAddDto = getAddBookingDto(item.getId());
+            bookingAddDto.setStart(LocalDateTime.now().plusHours(i));
+            bookingAddDto.setEnd(LocalDateTime.now().plusHours(i).plusMinutes(30));
+            bookingService.addBooking(bookingAddDto, userTwo.getId());
+        }
+        List<BookingDto> firstPage = bookingService.getUserBooking(FUTURE, 2, 0, 2);
+        assertEquals(2, firstPage.size());
+        assertEquals(3, firstPage.get(0).getId());
+        assertEquals(2, firstPage.get(1).getId());
+        BookingDto last = firstPage.get(1);
+        List<BookingDto> secondPage = bookingService.getUserItemBooking(ALL, 1, 0, 2, last.getStart(), last.getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(1, secondPage.get(0).getId());
+        assertEquals(1, bookingService.getUserItemBooking(ALL, 1, 2, 2).get(0).getId());
+    }
+
+    @Test
+    void approveBookingWithStaleVersionShouldReturnErrorTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        bookingService.addBooking(getAddBookingDto(item.getId()), userTwo.getId());
+        Booking first = bookingRepository.findById(1L).orElseThrow();
+        Booking second = bookingRepository.findById(1L).orElseThrow();
+        first.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(first);
+        second.setStatus(BookingStatus.REJECTED);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingRepository.save(second));
+        assertEquals(BookingStatus.APPROVED, bookingService.getBookingById(1, 1).getStatus());
+    }
+
+    @Test
+    void approveBookingsTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        Item otherItem = getItem(2);
+        itemService.addItem(ItemMapper.toItemDto(otherItem), userTwo.getId());
+        for (int i = 1; i <= 3; i++) {
+            BookingAddDto bookingAddDto = getAddBookingDto(item.getId());
+            bookingAddDto.setStart(LocalDateTime.now().plusHours(i));
+            bookingAddDto.setEnd(LocalDateTime.now().plusHours(i).plusMinutes(30));
+            bookingService.addBooking(bookingAddDto, userTwo.getId());
+        }
+        BookingAddDto foreignBooking = getAddBookingDto(otherItem.getId());
+        bookingService.addBooking(foreignBooking, userOne.getId());
+        bookingService.approveBooking(3, 1, true);
+        List<BookingApprovalResultDto> results = bookingService.approveBookings(List.of(
+                new BookingApprovalDto(1, true),
+                new BookingApprovalDto(2, false),
+                new BookingApprovalDto(3, false),
+                new BookingApprovalDto(4, true),
+                new BookingApprovalDto(1, false)), userOne.getId());
+        assertEquals(4, results.size());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(BookingStatus.REJECTED, results.get(1).getStatus());
+        assertEquals("Booking already approved", results.get(2).getError());
+        assertEquals("Booking not found", results.get(3).getError());
+        assertEquals(BookingStatus.APPROVED, bookingService.getBookingById(1, 1).getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingService.getBookingById(2, 1).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.getBookingById(4, 2).getStatus());
+        assertEquals(1, bookingRepository.findById(2L).orElseThrow().getVersion());
+    }
+
+    @Test
+    void bookingLifecycleSchedulerAdvancesPhasesTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        BookingAddDto bookingAddDto = getAddBookingDto(item.getId());
+        bookingAddDto.setStart(LocalDateTime.now().plusHours(1));
+        bookingAddDto.setEnd(LocalDateTime.now().plusHours(2));
+        bookingService.addBooking(bookingAddDto, userTwo.getId());
+        assertEquals(BookingPhase.FUTURE, bookingRepository.findById(1L).orElseThrow().getPhase());
+        assertEquals(1, bookingService.getUserBooking(FUTURE, 2, 0, 10).size());
+        lifecycleScheduler.advancePhases(bookingAddDto.getStart().plusMinutes(30));
+        assertEquals(BookingPhase.CURRENT, bookingRepository.findById(1L).orElseThrow().getPhase());
+        lifecycleScheduler.advancePhases(bookingAddDto.getEnd().plusMinutes(1));
+        assertEquals(BookingPhase.PAST, bookingRepository.findById(1L).orElseThrow().getPhase());
+        assertEquals(1, bookingService.getUserBooking(PAST, 2, 0, 10).size());
+        assertTrue(meterRegistry.get("shareit.booking.lifecycle.lag").gauge().value() >= 0);
+    }
+
+    @Test
+    void startingBookingIsListedAsFutureAndCurrentTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        BookingAddDto bookingAddDto = getAddBookingDto(item.getId());
+        bookingAddDto.setEnd(LocalDateTime.now().plusMinutes(1));
+        bookingService.addBooking(bookingAddDto, userTwo.getId());
+        jdbcTemplate.update("UPDATE bookings SET start_date = ? WHERE id = 1", LocalDateTime.now().minusSeconds(1));
+        assertEquals(1, bookingService.getUserItemBooking(FUTURE, 1, 0, 10).size());
+        assertEquals(1, bookingService.getUserItemBooking(CURRENT, 1, 0, 10).size());
+        assertEquals(BookingPhase.FUTURE, bookingRepository.findById(1L).orElseThrow().getPhase());
+        lifecycleScheduler.advancePhases(LocalDateTime.now());
+        assertEquals(BookingPhase.STARTING, bookingRepository.findById(1L).orElseThrow().getPhase());
+        assertEquals(1, bookingService.getUserItemBooking(FUTURE, 1, 0, 10).size());
+        assertEquals(1, bookingService.getUserItemBooking(CURRENT, 1, 0, 10).size());
+        assertEquals(0, bookingService.getUserItemBooking(PAST, 1, 0, 10).size());
+    }
+
+    @Test
+    void bookingEventsArePublishedTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        bookingService.addBooking(getAddBookingDto(item.getId()), userTwo.getId());
+        bookingService.approveBooking(1, 1, true);
+        eventRelay.publishEvents();
+        List<BookingEventDto> events = bookingService.getEvents(1, 0, 10);
+        assertEquals(2, events.size());
+        assertEquals(BookingEventType.CREATED, events.get(0).getType());
+        assertEquals(BookingEventType.APPROVED, events.get(1).getType());
+        assertEquals(1, events.get(1).getOwnerId());
+        assertEquals(2, events.get(1).getBookerId());
+        assertEquals(2, bookingService.getEvents(2, 0, 10).size());
+        assertEquals(0, bookingService.getEvents(3, 0, 10).size());
+        long cursor = events.get(1).getPublishSeq();
+        assertEquals(1, bookingService.getEvents(1, events.get(0).getPublishSeq(), 10).size());
+        // An event with a lower id committing late is published after the cursor, not skipped.
+        jdbcTemplate.update("INSERT INTO booking_events (id, booking_id, item_id, booker_id, owner_id, event_type, " +
+                "created) VALUES (0, 1, 1, 2, 1, 'REJECTED', ?)", LocalDateTime.now());
+        eventRelay.publishEvents();
+        List<BookingEventDto> late = bookingService.getEvents(1, cursor, 10);
+        assertEquals(1, late.size());
+        assertEquals(0, late.get(0).getId());
+        assertEquals(late.get(0).getPublishSeq(), bookingService.getLastPublishedSeq());
+        assertEquals(3, bookingService.getPublishedEvents(0, 10).size());
+        assertEquals(1, bookingService.getPublishedEvents(cursor, 10).size());
+    }
+
+    @Test
+    void retentionKeepsUnpublishedEventsTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        bookingService.addBooking(getAddBookingDto(item.getId()), userTwo.getId());
+        eventRelay.publishEvents();
+        bookingService.approveBooking(1, 1, true);
+        jdbcTemplate.update("UPDATE booking_events SET created = ?", LocalDateTime.now().minusDays(2));
+        eventRetentionJob.removeExpiredEvents();
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_events", Integer.class));
+        eventRelay.publishEvents();
+        List<BookingEventDto> events = bookingService.getEvents(1, 0, 10);
+        assertEquals(1, events.size());
+        assertEquals(BookingEventType.APPROVED, events.get(0).getType());
+    }
+
+    @Test
+    void addBookingWithIdempotencyKeyTest() {
+        BookingIdempotencyStore store = new BookingIdempotencyStore(1);
+        BookingAddDto request = getAddBookingDto(1);
+        BookingDto created = BookingDto.builder().id(1).build();
+        assertSame(created, store.execute(2, "key", request, () -> created));
+        assertSame(created, store.execute(2, "key", request, () -> {
+            throw new IllegalStateException("Booking must not be created twice");
+        }));
+        BookingAddDto otherRequest = getAddBookingDto(2);
+        assertThrows(ConflictException.class, () -> store.execute(2, "key", otherRequest, () -> created));
+        BookingDto otherUserBooking = BookingDto.builder().id(2).build();
+        assertSame(otherUserBooking, store.execute(3, "key", request, () -> otherUserBooking));
+        BookingDto evicted = BookingDto.builder().id(3).build();
+        assertSame(evicted, store.execute(2, "key", request, () -> evicted));
+    }
+
+    @Test
+    void availabilityIndexNextFreeSlotTest() {
+        BookingAvailabilityIndex index = new BookingAvailabilityIndex(null);
+        LocalDateTime now = LocalDateTime.now();
+        assertTrue(index.reserve(1, now.plusHours(1), now.plusHours(2)));
+        assertTrue(index.reserve(1, now.plusHours(2), now.plusHours(3)));
+        assertTrue(index.reserve(1, now.plusHours(4), now.plusHours(5)));
+        assertFalse(index.isFree(1, now.plusMinutes(90), now.plusMinutes(150)));
+        assertTrue(index.isFree(1, now.plusHours(3), now.plusHours(4)));
+        assertEquals(now.plusHours(3), index.nextFreeSlot(1, now.plusMinutes(70)));
+        assertEquals(now.plusMinutes(30), index.nextFreeSlot(1, now.plusMinutes(30)));
+        assertEquals(now.plusHours(5), index.nextFreeSlot(1, now.plusHours(4)));
+        assertTrue(index.reserve(1, now.plusHours(3), now.plusHours(4)));
+        assertEquals(now.plusHours(5), index.nextFreeSlot(1, now.plusMinutes(70)));
+        index.release(1, now.plusHours(2), now.plusHours(3));
+        assertEquals(now.plusHours(2), index.nextFreeSlot(1, now.plusMinutes(70)));
+        assertEquals(now.plusHours(5), index.nextFreeSlot(1, now.plusHours(3)));
+    }
+
+    @Test
+    void availabilityIndexKeepsBookingsWithSameStartTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        itemService.addItem(ItemMapper.toItemDto(getItem(1)), userOne.getId());
+        LocalDateTime start = LocalDateTime.now().plusHours(1).withNano(0);
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, booking_status) " +
+                "VALUES (?, ?, 1, 2, 'WAITING'), (?, ?, 1, 2, 'WAITING')", start, start.plusHours(2), start,
+                start.plusHours(1));
+        BookingAvailabilityIndex index = new BookingAvailabilityIndex(bookingRepository);
+        index.load();
+        index.release(1, start, start.plusHours(1));
+        assertFalse(index.isFree(1, start.plusMinutes(90), start.plusHours(3)));
+        assertEquals(start.plusHours(2), index.nextFreeSlot(1, start));
+        index.release(1, start, start.plusHours(2));
+        assertTrue(index.isFree(1, start, start.plusHours(3)));
+        assertTrue(index.isFree(2, start, start.plusHours(3)));
+        assertEquals(start, index.nextFreeSlot(2, start));
+    }
+
     private User getUser(long id) {
         return User.builder().id(id).name("User " + id).email("user" + id + "@user.com").build();
     }
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Owner booking listing latency while the owner's item count grows from 100 to 12 800.
+ * The number of bookings stays the same, so the latency must not depend on the item count.
+ * Run with {@code mvn -pl server test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class OwnerBookingBenchmarkTest {
+
+    private static final int BOOKINGS = 200;
+    private static final int ITERATIONS = 200;
+
+    private final BookingService bookingService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ownerBookingLatencyDoesNotDependOnItemCountTest() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'Owner', 'owner@user.com')");
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (2, 'Booker', 'booker@user.com')");
+        addItems(100);
+        addBookings();
+        int items = 100;
+        List<Double> latencies = new ArrayList<>();
+        while (items <= 12_800) {
+            double latency = measureMicros();
+            latencies.add(latency);
+            log.info("Owner with {} items: {} us per page", items, String.format("%.1f", latency));
+            addItems(items);
+            items *= 2;
+        }
+        assertTrue(latencies.get(latencies.size() - 1) < latencies.get(0) * 3,
+                "Latency grows with item count: " + latencies);
+    }
+
+    private double measureMicros() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(20, bookingService.getUserItemBooking(BookingTimeState.ALL, 1, 0, 20).size());
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            bookingService.getUserItemBooking(BookingTimeState.ALL, 1, 0, 20);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2] / 1000.0;
+    }
+
+    private void addItems(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"Item " + i, "Description " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, true, 1)",
+                rows);
+    }
+
+    private void addBookings() {
+        List<Long> itemIds = jdbcTemplate.queryForList("SELECT id FROM items ORDER BY id LIMIT 100", Long.class);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            rows.add(new Object[]{Timestamp.valueOf(start.plusHours(i)), Timestamp.valueOf(start.plusHours(i + 1)),
+                    itemIds.get(i % 100)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, booking_status) " +
+                "VALUES (?, ?, ?, 2, 'WAITING')", rows);
+    }
+}
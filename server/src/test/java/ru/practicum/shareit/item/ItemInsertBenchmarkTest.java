@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inserts {@link Item}, which takes its ids from a pooled sequence and is written in JDBC batches, against
+ * the same rows mapped with IDENTITY ids, which Hibernate has to insert one by one. The embedded H2 database
+ * runs in process, so a round trip costs next to nothing and the throughput of both is logged only; the
+ * assertion is on the number of JDBC statements, which is what each round trip to PostgreSQL costs.
+ * Run with {@code mvn -pl server test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ItemInsertBenchmarkTest {
+
+    private static final int ROWS = 50_000;
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+    private static final int ROUNDS = 3;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+
+    @Test
+    void sequenceIdsBatchInsertsTest() {
+        jdbcTemplate.execute("CREATE TABLE identity_items (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "name VARCHAR(200) NOT NULL, " +
+                "description VARCHAR(250) NOT NULL, " +
+                "available BOOLEAN, " +
+                "owner_id BIGINT NOT NULL, " +
+                "request_id BIGINT, " +
+                "FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE, " +
+                "FOREIGN KEY (request_id) REFERENCES requests (id) ON DELETE CASCADE)");
+        jdbcTemplate.execute("CREATE INDEX idx_identity_items_owner_id ON identity_items (owner_id)");
+        User owner = userRepository.save(new User(0, "Owner", "owner@user.com"));
+        IntFunction<Object> sequenceItem = i -> Item.builder()
+                .name("Item " + i)
+                .description("Description " + i)
+                .available(true)
+                .owner(owner)
+                .build();
+        IntFunction<Object> identityItem = i -> new IdentityItem("Item " + i, "Description " + i, owner.getId());
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        insert(sequenceItem);
+        long sequenceStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        insert(identityItem);
+        long identityStatements = statistics.getPrepareStatementCount();
+        long sequence = Long.MAX_VALUE;
+        long identity = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            sequence = Math.min(sequence, insert(sequenceItem));
+            identity = Math.min(identity, insert(identityItem));
+        }
+        assertEquals((ROUNDS + 1L) * ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class));
+        log.info("Inserted {} rows: sequence {} statements, best of {} {} rows/s; identity {} statements, {} rows/s",
+                ROWS, sequenceStatements, ROUNDS, rowsPerSecond(sequence), identityStatements, rowsPerSecond(identity));
+        assertTrue(identityStatements >= ROWS, "Identity statements " + identityStatements);
+        assertTrue(sequenceStatements * 10 < identityStatements, "Sequence statements " + sequenceStatements);
+    }
+
+    private long insert(IntFunction<Object> entity) {
+        long start = System.nanoTime();
+        for (int from = 0; from < ROWS; from += ROWS_PER_TRANSACTION) {
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < first + ROWS_PER_TRANSACTION; i++) {
+                    entityManager.persist(entity.apply(i));
+                }
+            });
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long rowsPerSecond(long nanos) {
+        return ROWS * 1_000_000_000L / nanos;
+    }
+
+    @Entity
+    @Table(name = "identity_items")
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    static class IdentityItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private long id;
+        private String name;
+        private String description;
+        private Boolean available;
+        @Column(name = "owner_id")
+        private long ownerId;
+
+        IdentityItem(String name, String description, long ownerId) {
+            this.name = name;
+            this.description = description;
+            this.available = true;
+            this.ownerId = ownerId;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * First-page latency of the LIKE query against the in-memory index on a generated catalogue of 100 000 items.
+ * The trigram backend needs PostgreSQL and is measured by {@link PostgresItemSearchBenchmarkTest}.
+ * Run with {@code mvn -pl server test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ItemSearchBackendBenchmarkTest {
+
+    private static final int ITEMS = 100_000;
+    private static final int WORDS = 5_000;
+    private static final int QUERIES = 200;
+
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void indexIsFasterThanLikeTest() {
+        Random random = new Random(42);
+        String[] words = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = randomWord(random);
+        }
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'Owner', 'owner@user.com')");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            rows.add(new Object[]{words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)],
+                    words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, true, 1)",
+                rows);
+        ItemSearchIndex index = new ItemSearchIndex(jdbcTemplate);
+        index.load();
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = words[random.nextInt(WORDS)].substring(1);
+        }
+        double like = p99Millis(new LikeItemSearch(itemRepository), queries);
+        double indexed = p99Millis(index, queries);
+        log.info("Search over {} items, p99: like {} ms, index {} ms", ITEMS, String.format("%.3f", like),
+                String.format("%.3f", indexed));
+        assertTrue(indexed < like, "Index p99 " + indexed + " ms, like p99 " + like + " ms");
+    }
+
+    private double p99Millis(ItemSearch search, String[] queries) {
+        for (String query : queries) {
+            search.search(query, 0, 20);
+        }
+        long[] samples = new long[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            long start = System.nanoTime();
+            search.search(queries[i], 0, 20);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[queries.length * 99 / 100] / 1_000_000.0;
+    }
+
+    private String randomWord(Random random) {
+        char[] chars = new char[5 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ranked first-page latency of the item search index filled with a million items, for ordinary queries and
+ * for one- and two-character queries, which have no trigram, and the latency of updating the description of an
+ * old item, whose id sits at the start of the large one-character postings. Run with {@code mvn -pl server test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+public class ItemSearchBenchmarkTest {
+
+    private static final int ITEMS = 1_000_000;
+    private static final int WORDS = 20_000;
+    private static final int QUERIES = 10_000;
+
+    private static final Random random = new Random(42);
+    private static final String[] words = new String[WORDS];
+    private static ItemSearchIndex index;
+
+    @BeforeAll
+    static void fillIndex() {
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = randomWord(random);
+        }
+        index = new ItemSearchIndex(null);
+        for (int id = 1; id <= ITEMS; id++) {
+            index.put(id, words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)],
+                    words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)] + " " +
+                            words[random.nextInt(WORDS)]);
+        }
+    }
+
+    @Test
+    void searchLatencyAtMillionItemsTest() {
+        double p99 = measure("word", () -> {
+            String word = words[random.nextInt(WORDS)];
+            return word.substring(0, Math.max(3, word.length() - 1));
+        });
+        assertTrue(p99 < 10, "p99 " + p99 + " ms");
+    }
+
+    @Test
+    void shortQueryLatencyAtMillionItemsTest() {
+        double p99 = measure("short", () -> {
+            String word = words[random.nextInt(WORDS)];
+            return word.substring(0, 1 + random.nextInt(2));
+        });
+        assertTrue(p99 < 20, "p99 " + p99 + " ms");
+    }
+
+    @Test
+    void updateLatencyAtMillionItemsTest() {
+        long[] samples = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long id = 1 + random.nextInt(1000);
+            String name = words[random.nextInt(WORDS)];
+            String description = words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)];
+            long start = System.nanoTime();
+            index.put(id, name, description);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double p99 = samples[QUERIES * 99 / 100] / 1_000_000.0;
+        log.info("Update of old items over {} items: p50 {} ms, p99 {} ms", ITEMS,
+                String.format("%.3f", samples[QUERIES / 2] / 1_000_000.0), String.format("%.3f", p99));
+        assertTrue(p99 < 10, "p99 " + p99 + " ms");
+    }
+
+    private double measure(String kind, Supplier<String> queries) {
+        long[] samples = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = queries.get();
+            long start = System.nanoTime();
+            index.search(query, 0, 20);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double p50 = samples[QUERIES / 2] / 1_000_000.0;
+        double p99 = samples[QUERIES * 99 / 100] / 1_000_000.0;
+        log.info("Search ({} queries) over {} items: p50 {} ms, p99 {} ms", kind, ITEMS,
+                String.format("%.3f", p50), String.format("%.3f", p99));
+        return p99;
+    }
+
+    private static String randomWord(Random random) {
+        char[] chars = new char[5 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -1,31 +1,58 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.dto.BookingAddDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.comment.dto.CommentAddDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.exception.ResourceNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.MOCK)
 @AutoConfigureTestDatabase
+@AutoConfigureMockMvc
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class ItemServiceTest {
@@ -33,6 +60,12 @@ public class ItemServiceTest {
     private final ItemService itemService;
     private final UserService userService;
     private final BookingService bookingService;
+    private final ItemRepository itemRepository;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final MockMvc mockMvc;
+    private final JdbcTemplate jdbcTemplate;
 
     @Test
     void addItemSuccessTest() {
@@ -67,10 +100,82 @@ public class ItemServiceTest {
         Item itemTwo = getItem(2);
         itemService.addItem(ItemMapper.toItemDto(itemOne), user.getId());
         itemService.addItem(ItemMapper.toItemDto(itemTwo), user.getId());
-        List<ItemDto> items = itemService.getItems(1);
+        List<ItemDto> items = itemService.getItems(1, 0, 10, null);
         assertEquals(2, items.size());
     }
 
+    @Test
+    void getItemsPagedByOffsetAndCursorTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        itemService.addItem(ItemMapper.toItemDto(getItem(1)), userOne.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(2)), userTwo.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(3)), userOne.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(4)), userOne.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(5)), userOne.getId());
+        List<ItemDto> firstPage = itemService.getItems(1, 0, 2, null);
+        assertEquals(List.of(1L, 3L), firstPage.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        List<ItemDto> byOffset = itemService.getItems(1, 2, 2, null);
+        assertEquals(List.of(4L, 5L), byOffset.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        List<ItemDto> byCursor = itemService.getItems(1, 0, 2, firstPage.get(1).getId());
+        assertEquals(List.of(4L, 5L), byCursor.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertTrue(itemService.getItems(1, 0, 2, 5L).isEmpty());
+    }
+
+    @Test
+    void importItemsValidatesRowsAndBatchesInsertsTest() {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        List<ItemDto> rows = new ArrayList<>();
+        for (int i = 1; i <= 1200; i++) {
+            rows.add(ItemMapper.toItemDto(getItem(i)));
+        }
+        rows.get(1).setName("");
+        rows.get(600).setRequestId(99L);
+        rows.get(1100).setDescription("d".repeat(251));
+        ItemImportResultDto result = itemService.importItems(1, rows.iterator());
+        assertEquals(1197, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(1, 600, 1100), result.getErrors().stream()
+                .map(ItemImportErrorDto::getRow).collect(Collectors.toList()));
+        assertEquals("Request not found", result.getErrors().get(1).getError());
+        List<ItemDto> owned = itemService.getItems(1, 0, 2000, null);
+        assertEquals(1197, owned.size());
+        assertEquals("Item 1200", itemService.getItemById(owned.get(1196).getId(), 1).getName());
+        assertTrue(owned.get(1196).getId() - owned.get(0).getId() < 1197 + 50);
+        itemService.addItem(ItemMapper.toItemDto(getItem(1201)), 1);
+        assertEquals(1198, itemService.getItems(1, 0, 2000, null).size());
+        assertEquals(List.of("Item 1200"), itemService.searchItems(1, "Item 1200", 0, 1).stream()
+                .map(ItemDto::getName).collect(Collectors.toList()));
+        assertThrows(ResourceNotFoundException.class, () -> itemService.importItems(2, rows.iterator()));
+    }
+
+    @Test
+    void importItemsFromNdjsonRecordsMalformedLinesTest() throws JsonProcessingException {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 1200; i++) {
+            body.append(i == 3 ? "{\"name\": \"Item 3\"," : objectMapper.writeValueAsString(
+                    ItemMapper.toItemDto(getItem(i)))).append(i == 10 ? "\n\n" : "\n");
+        }
+        List<ItemImportResultDto> progress = new ArrayList<>();
+        ItemImportResultDto result = itemService.importItems(1, new ItemImportReader(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)),
+                objectMapper.readerFor(ItemDto.class)), progress::add);
+        assertEquals(1200, result.getRead());
+        assertEquals(1199, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertTrue(result.getErrors().get(0).getError().startsWith("Malformed JSON"));
+        assertEquals(List.of(501, 1001, 1200), progress.stream()
+                .map(ItemImportResultDto::getRead).collect(Collectors.toList()));
+        assertEquals(List.of(false, false, true), progress.stream()
+                .map(ItemImportResultDto::isFinished).collect(Collectors.toList()));
+    }
+
     @Test
     void updateItemSuccessTest() {
         User user = getUser(1);
@@ -93,7 +198,7 @@ public class ItemServiceTest {
         userService.createUser(UserMapper.toUserDto(user));
         Item item = getItem(1);
         itemService.addItem(ItemMapper.toItemDto(item), user.getId());
-        List<ItemDto> items = itemService.searchItems(user.getId(), "Description1");
+        List<ItemDto> items = itemService.searchItems(user.getId(), "Description1", 0, 10);
         assertEquals(1, items.size());
     }
 
@@ -113,6 +218,9 @@ public class ItemServiceTest {
         CommentDto commentDto = itemService.addComment(comment, 2, 1);
         assertEquals(comment.getId(), commentDto.getId());
         assertEquals(comment.getText(), commentDto.getText());
+        List<CommentDto> listed = itemService.getItems(1, 0, 10, null).get(0).getComments();
+        assertEquals(1, listed.size());
+        assertEquals(comment.getText(), listed.get(0).getText());
     }
 
     @Test
@@ -133,6 +241,188 @@ public class ItemServiceTest {
         assertEquals(1, comments.size());
     }
 
+    @Test
+    void getItemsCommentsAreGroupedPerItemTest() throws InterruptedException {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        itemService.addItem(ItemMapper.toItemDto(getItem(1)), userOne.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(2)), userOne.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(3)), userOne.getId());
+        bookingService.addBooking(getAddBookingDto(1), userTwo.getId());
+        bookingService.addBooking(getAddBookingDto(2), userTwo.getId());
+        Thread.sleep(2000);
+        itemService.addComment(getAddComment(1), 2, 1);
+        itemService.addComment(getAddComment(2), 2, 1);
+        itemService.addComment(getAddComment(3), 2, 2);
+        List<ItemDto> items = itemService.getItems(1, 0, 10, null);
+        assertEquals(List.of("Text 1", "Text 2"), items.get(0).getComments().stream()
+                .map(CommentDto::getText).collect(Collectors.toList()));
+        assertEquals(userTwo.getName(), items.get(0).getComments().get(0).getAuthorName());
+        assertEquals(List.of("Text 3"), items.get(1).getComments().stream()
+                .map(CommentDto::getText).collect(Collectors.toList()));
+        assertTrue(items.get(2).getComments().isEmpty());
+        assertEquals(2, itemService.getItemById(1, 2).getComments().size());
+    }
+
+    @Test
+    void getItemByIdIsCachedAndInvalidatedOnWritesTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        Item item = getItem(1);
+        itemService.addItem(ItemMapper.toItemDto(item), userOne.getId());
+        assertNull(itemService.getItemById(1, 1).getNextBooking());
+        itemService.getItemById(1, 2);
+        assertEquals(1, cacheGets("hit"));
+        assertEquals(1, cacheGets("miss"));
+
+        BookingAddDto bookingAddDto = getAddBookingDto(item.getId());
+        bookingAddDto.setStart(LocalDateTime.now().plusHours(1));
+        bookingAddDto.setEnd(LocalDateTime.now().plusHours(2));
+        bookingService.addBooking(bookingAddDto, userTwo.getId());
+        assertEquals(1, itemService.getItemById(1, 1).getNextBooking().getId());
+        assertNull(itemService.getItemById(1, 2).getNextBooking());
+
+        item.setName("new name");
+        itemService.updateItem(1, 1, ItemMapper.toItemDto(item));
+        assertEquals("new name", itemService.getItemById(1, 2).getName());
+
+        jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ?", LocalDateTime.now().minusHours(2),
+                LocalDateTime.now().minusHours(1));
+        itemService.addComment(getAddComment(1), 2, 1);
+        ItemDto afterStart = itemService.getItemById(1, 1);
+        assertEquals(1, afterStart.getLastBooking().getId());
+        assertNull(afterStart.getNextBooking());
+        assertEquals(1, afterStart.getComments().size());
+        assertEquals(1, itemService.getItemById(1, 2).getComments().size());
+        assertEquals(3, cacheGets("hit"));
+    }
+
+    @Test
+    void itemDetailsExpireWhenNextBookingStartsTest() {
+        AtomicLong nanos = new AtomicLong();
+        LocalDateTime now = LocalDateTime.of(2030, 1, 1, 12, 0);
+        Clock clock = Clock.fixed(now.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        ItemDetailCache cache = new ItemDetailCache(new SimpleMeterRegistry(), 1_000_000, 60, nanos::get, clock);
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, ItemDto> loader = itemId -> {
+            loads.incrementAndGet();
+            return ItemDto.builder().id(itemId).comments(List.of())
+                    .nextBooking(BookingDto.builder().id(1).start(now.plusSeconds(2)).build())
+                    .build();
+        };
+        cache.get(1, loader);
+        nanos.addAndGet(Duration.ofMillis(1999).toNanos());
+        cache.get(1, loader);
+        assertEquals(1, loads.get());
+        nanos.addAndGet(Duration.ofMillis(1).toNanos());
+        cache.get(1, loader);
+        assertEquals(2, loads.get());
+        cache.get(2, itemId -> ItemDto.builder().id(itemId).comments(List.of()).build());
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertEquals(2, cache.get(2, itemId -> ItemDto.builder().id(3).comments(List.of()).build()).getId());
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(3, cache.get(2, itemId -> ItemDto.builder().id(3).comments(List.of()).build()).getId());
+    }
+
+    @Test
+    void getItemByIdIsInvalidatedOnUserWritesTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        itemService.addItem(ItemMapper.toItemDto(getItem(1)), userOne.getId());
+        BookingAddDto bookingAddDto = getAddBookingDto(1);
+        bookingAddDto.setStart(LocalDateTime.now().plusHours(1));
+        bookingAddDto.setEnd(LocalDateTime.now().plusHours(2));
+        bookingService.addBooking(bookingAddDto, userTwo.getId());
+        assertEquals("User 1", itemService.getItemById(1, 2).getOwner().getName());
+        assertEquals(1, itemService.getItemById(1, 1).getNextBooking().getId());
+
+        userService.updateUser(1, UserDto.builder().name("Renamed").build());
+        assertEquals("Renamed", itemService.getItemById(1, 2).getOwner().getName());
+
+        userService.deleteUserById(2);
+        assertNull(itemService.getItemById(1, 1).getNextBooking());
+
+        userService.deleteUserById(1);
+        assertThrows(ResourceNotFoundException.class, () -> itemService.getItemById(1, 1));
+    }
+
+    @Test
+    void cacheMetricsAreExposedOverActuatorTest() throws Exception {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        itemService.addItem(ItemMapper.toItemDto(getItem(1)), user.getId());
+        itemService.getItemById(1, 1);
+        itemService.getItemById(1, 1);
+        mockMvc.perform(get("/actuator/metrics/cache.gets")
+                        .param("tag", "cache:" + ItemDetailCache.NAME)
+                        .param("tag", "result:hit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(1.0));
+    }
+
+    @Test
+    void hibernateStatisticsAreExposedOverActuatorTest() throws Exception {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        itemService.addItem(ItemMapper.toItemDto(getItem(1)), user.getId());
+        mockMvc.perform(get("/actuator/metrics/hibernate.statements").param("tag", "status:prepared"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(statements()));
+    }
+
+    @Test
+    void readEndpointsRunFixedNumberOfStatementsTest() throws InterruptedException {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        for (int i = 1; i <= 5; i++) {
+            itemService.addItem(ItemMapper.toItemDto(getItem(i)), userOne.getId());
+            bookingService.addBooking(getAddBookingDto(i), userTwo.getId());
+            BookingAddDto next = getAddBookingDto(i);
+            next.setStart(LocalDateTime.now().plusMinutes(1));
+            next.setEnd(LocalDateTime.now().plusMinutes(2));
+            bookingService.addBooking(next, userTwo.getId());
+        }
+        Thread.sleep(2000);
+        for (int i = 1; i <= 5; i++) {
+            itemService.addComment(getAddComment(i), 2, i);
+        }
+
+        double before = statements();
+        List<ItemDto> items = itemService.getItems(1, 0, 10, null);
+        assertEquals(5, items.stream().filter(item -> item.getLastBooking() != null &&
+                item.getNextBooking() != null && item.getComments().size() == 1).count());
+        assertEquals(4, statements() - before);
+
+        before = statements();
+        ItemDto itemDto = itemService.getItemById(1, 1);
+        assertEquals(userTwo.getName(), itemDto.getNextBooking().getBooker().getName());
+        assertEquals(4, statements() - before);
+
+        before = statements();
+        assertEquals("Item 1", bookingService.getBookingById(1, 1).getItem().getName());
+        assertEquals(1, statements() - before);
+    }
+
+    private double statements() {
+        return meterRegistry.get("hibernate.statements").tag("status", "prepared").functionCounter().count();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", ItemDetailCache.NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
     @Test
     void getItemNotFoundShouldReturnErrorTest() {
         try {
@@ -301,9 +591,140 @@ public class ItemServiceTest {
         }
     }
 
+    @Test
+    void searchUnavailableItemByNameShouldReturnEmptyListTest() {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        Item item = getItem(1);
+        item.setAvailable(false);
+        itemService.addItem(ItemMapper.toItemDto(item), user.getId());
+        assertEquals(0, itemService.searchItems(user.getId(), "Item", 0, 10).size());
+        assertEquals(0, itemService.searchItems(user.getId(), "It", 0, 10).size());
+    }
+
+    @Test
+    void searchItemAfterUpdateTest() {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        itemService.addItem(ItemMapper.toItemDto(getItem(1)), user.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(2)), user.getId());
+        assertEquals(2, itemService.searchItems(user.getId(), "tem", 0, 10).size());
+        assertEquals(1, itemService.searchItems(user.getId(), "description2", 0, 10).size());
+        ItemDto update = ItemDto.builder().name("Cordless drill").build();
+        itemService.updateItem(1, user.getId(), update);
+        assertEquals(1, itemService.searchItems(user.getId(), "item", 0, 10).size());
+        assertEquals(1, itemService.searchItems(user.getId(), "LESS DRI", 0, 10).size());
+        assertEquals(0, itemService.searchItems(user.getId(), "drill cordless", 0, 10).size());
+        itemService.updateItem(1, user.getId(), ItemDto.builder().available(false).build());
+        assertEquals(0, itemService.searchItems(user.getId(), "drill", 0, 10).size());
+        assertEquals(1, itemService.searchItems(user.getId(), "2", 0, 10).size());
+    }
+
+    @Test
+    void searchItemsRankedAndPagedTest() {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        itemService.addItem(ItemDto.builder().name("Drill").description("Cordless drill with two batteries")
+                .available(true).build(), user.getId());
+        itemService.addItem(ItemDto.builder().name("Toolbox")
+                .description("Box with a drill bit set and other tools inside the case")
+                .available(true).build(), user.getId());
+        itemService.addItem(ItemDto.builder().name("Hammer drill").description("Heavy drill")
+                .available(true).build(), user.getId());
+        List<ItemDto> items = itemService.searchItems(user.getId(), "drill", 0, 10);
+        assertEquals(List.of(3L, 1L, 2L), items.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        List<ItemDto> page = itemService.searchItems(user.getId(), "drill", 1, 1);
+        assertEquals(1, page.size());
+        assertEquals(1, page.get(0).getId());
+        assertEquals(0, itemService.searchItems(user.getId(), "drill", 3, 10).size());
+        List<Long> streamed = new ArrayList<>();
+        itemService.streamSearchItems(user.getId(), "drill", item -> streamed.add(item.getId()));
+        assertEquals(List.of(3L, 1L, 2L), streamed);
+    }
+
+    @Test
+    void searchItemsWithDatabaseBackendsTest() throws MetaDataAccessException {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        for (int i = 1; i <= 3; i++) {
+            itemService.addItem(ItemMapper.toItemDto(getItem(i)), user.getId());
+        }
+        itemService.updateItem(2, user.getId(), ItemDto.builder().available(false).build());
+        ItemSearch like = new LikeItemSearch(itemRepository);
+        assertEquals(List.of(1L, 3L), like.search("ITEM", 0, 10));
+        assertEquals(List.of(3L), like.search("item", 1, 10));
+        ItemSearch trigram = new TrigramItemSearch(itemRepository, dataSource);
+        assertEquals(List.of(1L), trigram.search("description", 0, 1));
+        itemService.addItem(ItemDto.builder().name("Drill 100%").description("Bit_set!").available(true).build(),
+                user.getId());
+        assertEquals(List.of(4L), like.search("%", 0, 10));
+        assertEquals(List.of(4L), like.search("_", 0, 10));
+        assertEquals(List.of(4L), like.search("!", 0, 10));
+        assertEquals(0, like.search("l%", 0, 10).size());
+        assertEquals(List.of(4L), trigram.search("0%", 0, 10));
+    }
+
+    @Test
+    void searchIndexUpdatesPostingsInPlaceTest() {
+        ItemSearchIndex index = new ItemSearchIndex(null);
+        for (long id = 1; id <= 100; id++) {
+            index.put(id, "Drill " + id, "Cordless");
+        }
+        index.put(7, "Drill 7", "Cordless");
+        index.put(8, "Saw 8", "Cordless");
+        assertEquals(99, index.search("drill", 0, 200).size());
+        assertEquals(List.of(8L), index.search("saw", 0, 10));
+        for (long id = 1; id <= 60; id++) {
+            index.remove(id);
+        }
+        assertEquals(40, index.search("drill", 0, 200).size());
+        assertEquals(0, index.search("saw", 0, 10).size());
+        index.put(5, "Drill 5", "Cordless");
+        index.put(3, "Drill 3", "Cordless");
+        index.put(61, "Hammer 61", "Cordless");
+        List<Long> expected = new ArrayList<>(List.of(3L, 5L));
+        for (long id = 61; id <= 100; id++) {
+            expected.add(id);
+        }
+        assertEquals(expected, index.search("cordless", 0, 200));
+        assertEquals(List.of(5L), index.search("drill 5", 0, 10));
+        assertEquals(List.of(61L), index.search("hammer", 0, 10));
+    }
+
+    @Test
+    void suggestItemsTest() {
+        User user = getUser(1);
+        userService.createUser(UserMapper.toUserDto(user));
+        for (String name : List.of("Dryer", "Drill", "Drum", "drill")) {
+            itemService.addItem(ItemDto.builder().name(name).description("Description").available(true).build(),
+                    user.getId());
+        }
+        assertEquals(List.of("Drill", "Drum", "Dryer"), itemService.suggestItems(user.getId(), "D", 10));
+        assertEquals("Drill", itemService.suggestItems(user.getId(), "dr", 1).get(0));
+        itemService.updateItem(3, user.getId(), ItemDto.builder().name("Saw").build());
+        itemService.updateItem(1, user.getId(), ItemDto.builder().available(false).build());
+        assertEquals(List.of("Drill"), itemService.suggestItems(user.getId(), "dr", 10));
+        assertEquals(List.of("Saw"), itemService.suggestItems(user.getId(), "s", 10));
+        assertEquals(0, itemService.suggestItems(user.getId(), "x", 10).size());
+        assertEquals(0, itemService.suggestItems(user.getId(), " ", 10).size());
+    }
+
+    @Test
+    void suggestIndexKeepsMaxTermsTest() {
+        ItemSuggestIndex index = new ItemSuggestIndex(null, 2);
+        index.put(1, "Drill");
+        index.put(2, "Drum");
+        index.put(3, "Dryer");
+        index.put(4, "Drill");
+        assertEquals(List.of("Drill", "Drum"), index.suggest("dr", 10));
+        index.remove(2);
+        index.put(3, "Dryer");
+        assertEquals(List.of("Drill", "Dryer"), index.suggest("dr", 10));
+    }
+
     @Test
     void searchItemWithEmptyTextShouldReturnEmptyListTest() {
-        List<ItemDto> items = itemService.searchItems(1, "");
+        List<ItemDto> items = itemService.searchItems(1, "", 0, 10);
         assertEquals(0, items.size());
     }
 
@@ -375,7 +796,7 @@ public class ItemServiceTest {
         Thread.sleep(2000);
         bookingService.addBooking(bookingAddDtoTwo, userTwo.getId());
         bookingService.approveBooking(2, 1, true);
-        List<ItemDto> items = itemService.getItems(1);
+        List<ItemDto> items = itemService.getItems(1, 0, 10, null);
         ItemDto itemDto = items.get(0);
         assertEquals(1, items.size());
         assertEquals(item.getId(), itemDto.getId());
@@ -386,6 +807,36 @@ public class ItemServiceTest {
         assertNotNull(itemDto.getNextBooking());
     }
 
+    @Test
+    void getItemsBookingsAreResolvedPerItemTest() throws InterruptedException {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        itemService.addItem(ItemMapper.toItemDto(getItem(1)), userOne.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(2)), userOne.getId());
+        itemService.addItem(ItemMapper.toItemDto(getItem(3)), userOne.getId());
+        BookingAddDto past = getAddBookingDto(1);
+        bookingService.addBooking(past, userTwo.getId());
+        BookingAddDto future = getAddBookingDto(2);
+        future.setStart(LocalDateTime.now().plusMinutes(1));
+        future.setEnd(LocalDateTime.now().plusMinutes(2));
+        bookingService.addBooking(future, userTwo.getId());
+        BookingAddDto furtherFuture = getAddBookingDto(2);
+        furtherFuture.setStart(LocalDateTime.now().plusMinutes(5));
+        furtherFuture.setEnd(LocalDateTime.now().plusMinutes(6));
+        bookingService.addBooking(furtherFuture, userTwo.getId());
+        Thread.sleep(2000);
+        List<ItemDto> items = itemService.getItems(1, 0, 10, null);
+        assertEquals(3, items.size());
+        assertEquals(1, items.get(0).getLastBooking().getId());
+        assertNull(items.get(0).getNextBooking());
+        assertNull(items.get(1).getLastBooking());
+        assertEquals(2, items.get(1).getNextBooking().getId());
+        assertNull(items.get(2).getLastBooking());
+        assertNull(items.get(2).getNextBooking());
+    }
+
     @Test
     void getItemOnlyLastBookingSetTest() throws InterruptedException {
         User userOne = getUser(1);
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * First-page latency of the pg_trgm query against the LIKE query on a generated catalogue of 100 000 items in
+ * PostgreSQL. The schema scripts recreate the data, so point it at a scratch database:
+ * {@code mvn -pl server test -Pbenchmark -Dtest=PostgresItemSearchBenchmarkTest
+ * -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/share_it_bench}
+ * (user and password default to postgres, override with benchmark.postgres.username and
+ * benchmark.postgres.password). Skipped when no URL is given.
+ */
+@Tag("benchmark")
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${benchmark.postgres.url}",
+        "spring.datasource.username=${benchmark.postgres.username:postgres}",
+        "spring.datasource.password=${benchmark.postgres.password:postgres}",
+        "spring.sql.init.platform=postgresql"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class PostgresItemSearchBenchmarkTest {
+
+    private static final int ITEMS = 100_000;
+    private static final int WORDS = 5_000;
+    private static final int QUERIES = 200;
+
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    @Test
+    void trigramIsFasterThanLikeTest() throws MetaDataAccessException {
+        Random random = new Random(42);
+        String[] words = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = randomWord(random);
+        }
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'Owner', 'owner@user.com')");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            rows.add(new Object[]{words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)],
+                    words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, true, 1)",
+                rows);
+        jdbcTemplate.execute("ANALYZE items");
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = words[random.nextInt(WORDS)].substring(1);
+        }
+        double like = p99Millis(new LikeItemSearch(itemRepository), queries);
+        double trigram = p99Millis(new TrigramItemSearch(itemRepository, dataSource), queries);
+        log.info("PostgreSQL search over {} items, p99: like {} ms, trigram {} ms", ITEMS,
+                String.format("%.3f", like), String.format("%.3f", trigram));
+        assertTrue(trigram < like, "Trigram p99 " + trigram + " ms, like p99 " + like + " ms");
+    }
+
+    private double p99Millis(ItemSearch search, String[] queries) {
+        for (String query : queries) {
+            search.search(query, 0, 20);
+        }
+        long[] samples = new long[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            long start = System.nanoTime();
+            search.search(queries[i], 0, 20);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[queries.length * 99 / 100] / 1_000_000.0;
+    }
+
+    private String randomWord(Random random) {
+        char[] chars = new char[5 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
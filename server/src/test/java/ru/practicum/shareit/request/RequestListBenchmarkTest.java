@@ -0,0 +1,103 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of walking all of a requester's own requests, with two items each, page by page with the cursor
+ * while the request count grows from 1 000 to 8 000. Pages are read by keyset and items are attached in one
+ * pass over the loaded items, so the cost per request must stay flat.
+ * Run with {@code mvn -pl server test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RequestListBenchmarkTest {
+
+    private static final int ITEMS_PER_REQUEST = 2;
+    private static final int PAGE_SIZE = 100;
+    private static final int ITERATIONS = 20;
+
+    private final ItemRequestService itemRequestService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void requestListCostPerRequestDoesNotGrowTest() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'Requester', 'requester@user.com')");
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (2, 'Owner', 'owner@user.com')");
+        int requests = 0;
+        List<Double> perRequest = new ArrayList<>();
+        for (int target = 1_000; target <= 8_000; target *= 2) {
+            addRequests(requests, target - requests);
+            requests = target;
+            double latency = measureMicros(requests);
+            perRequest.add(latency / requests);
+            log.info("Requester with {} requests: {} us for all pages, {} us per request", requests,
+                    String.format("%.1f", latency), String.format("%.2f", latency / requests));
+        }
+        assertTrue(perRequest.get(perRequest.size() - 1) < perRequest.get(0) * 3,
+                "Cost per request grows with request count: " + perRequest);
+    }
+
+    private double measureMicros(int requests) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(requests, listAll());
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            listAll();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2] / 1000.0;
+    }
+
+    private int listAll() {
+        int listed = 0;
+        List<ItemRequestDto> page = itemRequestService.getRequestsForUser(1, 0, PAGE_SIZE, null, null);
+        while (!page.isEmpty()) {
+            listed += page.size();
+            ItemRequestDto last = page.get(page.size() - 1);
+            page = itemRequestService.getRequestsForUser(1, 0, PAGE_SIZE, last.getCreated(), last.getId());
+        }
+        return listed;
+    }
+
+    private void addRequests(int first, int count) {
+        LocalDateTime created = LocalDateTime.now();
+        List<Object[]> requestRows = new ArrayList<>();
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            long id = i + 1;
+            requestRows.add(new Object[]{id, "Request " + i, Timestamp.valueOf(created.plusSeconds(i))});
+            for (int j = 0; j < ITEMS_PER_REQUEST; j++) {
+                itemRows.add(new Object[]{"Item " + i + "." + j, "Description " + i, id});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests (id, description, requester_id, created) VALUES (?, ?, 1, ?)",
+                requestRows);
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id, request_id) " +
+                "VALUES (?, ?, true, 2, ?)", itemRows);
+    }
+}
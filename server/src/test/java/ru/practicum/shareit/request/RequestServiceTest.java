@@ -1,23 +1,36 @@
 package ru.practicum.shareit.request;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.exception.ResourceNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestAddDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestItemDto;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @AutoConfigureTestDatabase
@@ -28,6 +41,9 @@ public class RequestServiceTest {
     private final ItemService itemService;
     private final UserService userService;
     private final ItemRequestService itemRequestService;
+    private final RequestArchiveJob requestArchiveJob;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
 
     @Test
     void createRequestSuccessTest() {
@@ -67,10 +83,58 @@ public class RequestServiceTest {
         itemService.addItem(ItemMapper.toItemDto(item), userTwo.getId());
         ItemRequestAddDto itemRequestAddDto = getItemRequestAddDto();
         itemRequestService.createRequest(itemRequestAddDto, userOne.getId());
-        List<ItemRequestDto> itemRequestDto = itemRequestService.getRequestsForUser(1);
+        List<ItemRequestDto> itemRequestDto = itemRequestService.getRequestsForUser(1, 0, 10, null, null);
         assertEquals(1, itemRequestDto.size());
     }
 
+    @Test
+    void getRequestsForUserAttachesItemsPerRequestTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        itemRequestService.createRequest(getItemRequestAddDto(), userOne.getId());
+        itemRequestService.createRequest(getItemRequestAddDto(), userOne.getId());
+        for (long id = 1; id <= 3; id++) {
+            Item item = getItem(id);
+            item.setRequestId(id == 3 ? 2L : 1L);
+            itemService.addItem(ItemMapper.toItemDto(item), userTwo.getId());
+        }
+        List<ItemRequestDto> requests = itemRequestService.getRequestsForUser(1, 0, 10, null, null);
+        assertEquals(2, requests.size());
+        for (ItemRequestDto request : requests) {
+            List<RequestItemDto> items = request.getItems();
+            assertEquals(request.getId() == 1 ? 2 : 1, items.size());
+            for (RequestItemDto item : items) {
+                assertEquals(request.getId(), item.getRequestId());
+                assertEquals(userTwo.getId(), item.getOwnerId());
+            }
+        }
+        assertEquals(List.of(3L), itemRequestService.getRequestById(2, 2).getItems().stream()
+                .map(RequestItemDto::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void getRequestsForUserPagedByOffsetAndCursorTest() {
+        User userOne = getUser(1);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        for (int i = 0; i < 3; i++) {
+            itemRequestService.createRequest(getItemRequestAddDto(), userOne.getId());
+        }
+        List<ItemRequestDto> firstPage = itemRequestService.getRequestsForUser(1, 0, 2, null, null);
+        assertEquals(List.of(3L, 2L), firstPage.stream().map(ItemRequestDto::getId).collect(Collectors.toList()));
+        ItemRequestDto last = firstPage.get(1);
+        assertEquals(List.of(1L), itemRequestService.getRequestsForUser(1, 0, 2, last.getCreated(), last.getId())
+                .stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(1L), itemRequestService.getRequestsForUser(1, 2, 2, null, null).stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList()));
+        assertThrows(ValidationException.class, () -> itemRequestService.getRequestsForUser(1, 0, 101, null, null));
+    }
+
     @Test
     void getAllRequestsSuccessTest() {
         User userOne = getUser(1);
@@ -101,10 +165,139 @@ public class RequestServiceTest {
         itemRequestService.createRequest(itemRequestAddDto, userOne.getId());
         item.setRequestId(1L);
         itemService.updateItem(item.getId(), userTwo.getId(), ItemMapper.toItemDto(item));
-        List<ItemRequestDto> itemRequestDto = itemRequestService.getAllRequestsParametrized(3, 0, 20);
+        List<ItemRequestDto> itemRequestDto = itemRequestService.getAllRequestsParametrized(3, 0, 20, null, null);
         assertEquals(0, itemRequestDto.size());
     }
 
+    @Test
+    void getAllRequestsParametrizedPagesByCursorWithoutDuplicatesTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        for (long requestId = 1; requestId <= 3; requestId++) {
+            itemRequestService.createRequest(getItemRequestAddDto(), userOne.getId());
+            for (long i = 0; i < 2; i++) {
+                Item item = getItem(requestId * 10 + i);
+                item.setRequestId(requestId);
+                itemService.addItem(ItemMapper.toItemDto(item), userTwo.getId());
+            }
+        }
+        List<ItemRequestDto> firstPage = itemRequestService.getAllRequestsParametrized(2, 0, 2, null, null);
+        assertEquals(2, firstPage.size());
+        ItemRequestDto last = firstPage.get(1);
+        List<ItemRequestDto> secondPage = itemRequestService.getAllRequestsParametrized(2, 0, 2,
+                last.getCreated(), last.getId());
+        assertEquals(1, secondPage.size());
+        Set<Long> ids = new HashSet<>();
+        for (ItemRequestDto requestDto : firstPage) {
+            ids.add(requestDto.getId());
+            assertEquals(2, requestDto.getItems().size());
+        }
+        ids.add(secondPage.get(0).getId());
+        assertEquals(Set.of(1L, 2L, 3L), ids);
+        assertEquals(List.of(1L), itemRequestService.getAllRequestsParametrized(2, 2, 2, null, null).stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void createRequestAndAddItemStoreSuggestionsForRequesterTest() throws InterruptedException {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        itemService.addItem(ItemMapper.toItemDto(Item.builder().name("Cordless drill")
+                .description("Drill with two batteries").available(true).build()), userTwo.getId());
+        itemService.addItem(ItemMapper.toItemDto(Item.builder().name("Garden hose")
+                .description("Twenty metres").available(true).build()), userTwo.getId());
+        itemRequestService.createRequest(ItemRequestAddDto.builder().description("Need a drill for shelves").build(),
+                userOne.getId());
+        assertEquals(List.of(1L), awaitSuggestions(1, 1));
+        itemService.addItem(ItemMapper.toItemDto(Item.builder().name("Drill bits")
+                .description("Own bits").available(true).build()), userOne.getId());
+        itemService.addItem(ItemMapper.toItemDto(Item.builder().name("Hammer drill")
+                .description("For concrete shelves").available(true).build()), userTwo.getId());
+        List<Long> suggested = awaitSuggestions(1, 2);
+        assertEquals(Set.of(1L, 4L), new HashSet<>(suggested));
+        assertEquals(4L, suggested.get(0));
+        assertNull(itemRequestService.getRequestById(1, 2).getSuggestions());
+    }
+
+    @Test
+    void suggestionsSkipRequesterItemsRankedFirstTest() throws InterruptedException {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        for (int i = 1; i <= 12; i++) {
+            itemService.addItem(ItemMapper.toItemDto(Item.builder().name("Drill " + i)
+                    .description("Own drill").available(true).build()), userOne.getId());
+        }
+        itemService.addItem(ItemMapper.toItemDto(Item.builder().name("Drill press")
+                .description("Bench drill").available(true).build()), userTwo.getId());
+        itemRequestService.createRequest(ItemRequestAddDto.builder().description("Need a drill").build(),
+                userOne.getId());
+        assertEquals(List.of(13L), awaitSuggestions(1, 1));
+    }
+
+    @Test
+    void suggestionsForArchivedRequestDoNotFailTheBatchTest() throws InterruptedException {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        itemRequestService.createRequest(ItemRequestAddDto.builder().description("Need a drill").build(),
+                userOne.getId());
+        itemRequestService.createRequest(ItemRequestAddDto.builder().description("Looking for a drill").build(),
+                userOne.getId());
+        jdbcTemplate.update("DELETE FROM requests WHERE id = 1");
+        itemService.importItems(userTwo.getId(), List.of(
+                ItemMapper.toItemDto(Item.builder().name("Cordless drill")
+                        .description("Drill with two batteries").available(true).build()),
+                ItemMapper.toItemDto(Item.builder().name("Hammer drill")
+                        .description("For concrete").available(true).build())).iterator());
+        assertEquals(2, awaitSuggestions(2, 2).size());
+    }
+
+    private List<Long> awaitSuggestions(long requestId, int count) throws InterruptedException {
+        List<Long> suggested = List.of();
+        for (int attempt = 0; attempt < 50 && suggested.size() < count; attempt++) {
+            Thread.sleep(100);
+            suggested = itemRequestService.getRequestById(requestId, 1).getSuggestions().stream()
+                    .map(RequestSuggestionDto::getItemId)
+                    .collect(Collectors.toList());
+        }
+        return suggested;
+    }
+
+    @Test
+    void archiveRequestsMovesOldAndFulfilledRequestsTest() {
+        User userOne = getUser(1);
+        User userTwo = getUser(2);
+        userService.createUser(UserMapper.toUserDto(userOne));
+        userService.createUser(UserMapper.toUserDto(userTwo));
+        for (int i = 0; i < 3; i++) {
+            itemRequestService.createRequest(getItemRequestAddDto(), userOne.getId());
+        }
+        Item item = getItem(1);
+        item.setRequestId(1L);
+        itemService.addItem(ItemMapper.toItemDto(item), userTwo.getId());
+        jdbcTemplate.update("UPDATE requests SET created = ? WHERE id = 2",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(100)));
+        assertEquals(1, requestArchiveJob.archiveRequests(LocalDateTime.now()));
+        assertEquals(1, requestArchiveJob.archiveRequests(LocalDateTime.now().plusDays(8)));
+        assertEquals(List.of(3L), itemRequestService.getRequestsForUser(1, 0, 10, null, null).stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList()));
+        List<ItemRequestDto> archived = itemRequestService.getArchivedRequests(1, 0, 10);
+        assertEquals(List.of(1L, 2L), archived.stream().map(ItemRequestDto::getId).collect(Collectors.toList()));
+        assertEquals(1, archived.get(0).getItems().size());
+        assertEquals(1L, itemService.getItemById(1, 2).getRequestId());
+        assertThrows(ResourceNotFoundException.class, () -> itemRequestService.getRequestById(1, 1));
+        assertEquals(2, meterRegistry.get("shareit.request.archive.rows").counter().count());
+    }
+
     private ItemRequestAddDto getItemRequestAddDto() {
         return ItemRequestAddDto.builder()
                 .description("test")